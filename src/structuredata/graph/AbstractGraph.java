@@ -1,17 +1,288 @@
 package structuredata.graph;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import structuredata.node.Node;
+import structuredata.node.NodeImpl;
 
 abstract class AbstractGraph<E> implements Graph<E> {
 
     protected List<Node<E>> nodes;
+    // índice elemento -> posición del vértice en 'nodes'
+    protected Map<E, Integer> index;
+    // estado de búsqueda reutilizable, uno por hilo y sentido
+    private final ThreadLocal<DijkstraSearch> searches = new ThreadLocal<>();
+    private final ThreadLocal<DijkstraSearch> reverseSearches = new ThreadLocal<>();
 
     public AbstractGraph() {
         nodes = new ArrayList<>();
+        index = new HashMap<>();
     }
 
+    /**
+     * Método que devuelve la posición del vértice que contiene el elemento, en
+     * tiempo constante y sin crear nodos auxiliares
+     *
+     * @param element elemento a localizar
+     * @return posición del vértice o -1 en caso de no existir
+     */
+    protected int indexOf(E element) {
+        Integer i = index.get(element);
+        return i == null ? -1 : i;
+    }
+
+    @Override
+    public void addNodes(Collection<E> elements) {
+        elements.forEach(this::addNode);
+    }
+
+    @Override
+    public double[] distances(E source, Collection<E> targets) {
+        int nFrom = indexOf(source);
+        if (nFrom < 0) {
+            throw new NullPointerException();
+        }
+        int[] nTargets = indexesOf(targets);
+        double[] result = new double[nTargets.length];
+        distances(adjacency(), nFrom, nTargets, result);
+        return result;
+    }
+
+    @Override
+    public double[][] distances(Collection<E> sources, Collection<E> targets) {
+        return distances(sources, targets, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public double[][] distances(Collection<E> sources, Collection<E> targets, ForkJoinPool pool) {
+        int[] nSources = indexesOf(sources);
+        int[] nTargets = indexesOf(targets);
+        double[][] result = new double[nSources.length][nTargets.length];
+        pool.invoke(new DistancesTask(adjacency(), nSources, nTargets, result, 0, nSources.length));
+        return result;
+    }
+
+    // búsqueda de uno a muchos con el estado del hilo actual
+    private void distances(CompressedAdjacency adjacency, int from, int[] targets, double[] result) {
+        DijkstraSearch search = search(adjacency.order());
+        search.run(adjacency, from, targets);
+        for (int i = 0; i < targets.length; i++) {
+            result[i] = search.cost[targets[i]];
+        }
+    }
+
+    private int[] indexesOf(Collection<E> elements) {
+        int[] result = new int[elements.size()];
+        int i = 0;
+        for (E e : elements) {
+            int n = indexOf(e);
+            if (n < 0) {
+                throw new NullPointerException();
+            }
+            result[i++] = n;
+        }
+        return result;
+    }
+
+    /**
+     * Tarea de fork-join que reparte un rango de orígenes dividiéndolo por la
+     * mitad hasta quedarse con un único origen por tarea
+     */
+    private class DistancesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CompressedAdjacency adjacency;
+        private final int[] sources;
+        private final int[] targets;
+        private final double[][] result;
+        private final int begin;
+        private final int end;
+
+        DistancesTask(CompressedAdjacency adjacency, int[] sources, int[] targets,
+                double[][] result, int begin, int end) {
+            this.adjacency = adjacency;
+            this.sources = sources;
+            this.targets = targets;
+            this.result = result;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - begin <= 1) {
+                if (begin < end) {
+                    distances(adjacency, sources[begin], targets, result[begin]);
+                }
+            } else {
+                int middle = (begin + end) >>> 1;
+                invokeAll(new DistancesTask(adjacency, sources, targets, result, begin, middle),
+                        new DistancesTask(adjacency, sources, targets, result, middle, end));
+            }
+        }
+    }
+
+    /**
+     * Método que reconstruye la ruta hasta un vértice a partir de los arrays de
+     * previos y costes de una búsqueda. Los nodos devueltos son nuevos, con su
+     * coste y su previo ya actualizados.
+     *
+     * @param previous vértice previo de cada vértice, -1 si no tiene
+     * @param cost coste acumulado de cada vértice
+     * @param to vértice destino
+     * @return ruta desde el origen hasta el destino, vacía si no hay ruta
+     */
+    protected List<Node<E>> buildPath(int[] previous, double[] cost, int to) {
+        if (previous[to] < 0) {
+            return new ArrayList<>();
+        }
+        // contamos los saltos para rellenar la ruta ya en orden
+        int length = 0;
+        for (int v = to; v >= 0; v = previous[v]) {
+            length++;
+        }
+        int[] route = new int[length];
+        double[] routeCost = new double[length];
+        for (int v = to; v >= 0; v = previous[v]) {
+            route[--length] = v;
+            routeCost[length] = cost[v];
+        }
+        return buildPath(route, routeCost);
+    }
+
+    /**
+     * Método que crea los nodos de una ruta dada por sus vértices y el coste
+     * acumulado en cada uno
+     *
+     * @param route vértices de la ruta, en orden
+     * @param cost coste acumulado en cada posición de la ruta
+     * @return ruta con nodos nuevos enlazados con su previo
+     */
+    protected List<Node<E>> buildPath(int[] route, double[] cost) {
+        List<Node<E>> path = new ArrayList<>(route.length);
+        Node<E> previous = null;
+        for (int i = 0; i < route.length; i++) {
+            Node<E> n = new NodeImpl<>(nodes.get(route[i]).getElement());
+            n.setCost(cost[i]);
+            n.setPrevious(previous);
+            path.add(n);
+            previous = n;
+        }
+        return path;
+    }
+
+    /**
+     * Método que devuelve el estado de búsqueda del hilo actual, con capacidad
+     * para al menos n vértices. Cada hilo trabaja con sus propios arrays, así
+     * que varias consultas pueden ejecutarse a la vez sobre el mismo grafo. El
+     * resultado debe copiarse antes de la siguiente búsqueda del mismo hilo.
+     *
+     * @param n número de vértices
+     * @return estado de búsqueda del hilo
+     */
+    DijkstraSearch search(int n) {
+        return search(searches, n);
+    }
+
+    /**
+     * Igual que {@link #search(int)}, pero devuelve un segundo estado de
+     * búsqueda del hilo, para la búsqueda hacia atrás del modo bidireccional
+     *
+     * @param n número de vértices
+     * @return estado de búsqueda inversa del hilo
+     */
+    DijkstraSearch reverseSearch(int n) {
+        return search(reverseSearches, n);
+    }
+
+    private static DijkstraSearch search(ThreadLocal<DijkstraSearch> pool, int n) {
+        DijkstraSearch search = pool.get();
+        if (search == null || search.capacity() < n) {
+            search = new DijkstraSearch(n);
+            pool.set(search);
+        }
+        return search;
+    }
+
+    @Override
+    public List<Node<E>> bidirectionalShortestPath(E from, E to) {
+        int nFrom = indexOf(from);
+        int nTo = indexOf(to);
+        if (nFrom < 0 || nTo < 0) {
+            throw new NullPointerException();
+        }
+        CompressedAdjacency forward = adjacency();
+        CompressedAdjacency backward = forward.transpose();
+        DijkstraSearch f = search(forward.order());
+        DijkstraSearch b = reverseSearch(forward.order());
+        b.start(nTo);
+        f.start(nFrom, b);
+        // avanzamos siempre la búsqueda más atrasada, hasta que ninguna de las
+        // dos pueda mejorar la mejor ruta encontrada en los cruces
+        while (f.hasNext() && b.hasNext()
+                && f.nextCost() + b.nextCost() < f.meetingCost) {
+            if (f.nextCost() <= b.nextCost()) {
+                f.settleNext(forward);
+            } else {
+                b.settleNext(backward);
+            }
+        }
+        int meeting = f.meetingVertex;
+        if (meeting < 0 || nFrom == nTo) {
+            return new ArrayList<>();
+        }
+        // unimos la mitad de la ruta hacia delante con la mitad hacia atrás
+        int half = 0;
+        for (int v = meeting; v >= 0; v = f.previous[v]) {
+            half++;
+        }
+        int length = half;
+        for (int v = b.previous[meeting]; v >= 0; v = b.previous[v]) {
+            length++;
+        }
+        int[] route = new int[length];
+        double[] cost = new double[length];
+        int i = half;
+        for (int v = meeting; v >= 0; v = f.previous[v]) {
+            route[--i] = v;
+            cost[i] = f.cost[v];
+        }
+        i = half;
+        for (int v = b.previous[meeting]; v >= 0; v = b.previous[v]) {
+            route[i] = v;
+            cost[i++] = f.meetingCost - b.cost[v];
+        }
+        return buildPath(route, cost);
+    }
+
+    @Override
+    public List<Node<E>> shortestPath(E from, E to, Heuristic<E> heuristic) {
+        int nFrom = indexOf(from);
+        int nTo = indexOf(to);
+        if (nFrom < 0 || nTo < 0) {
+            throw new NullPointerException();
+        }
+        CompressedAdjacency adjacency = adjacency();
+        DijkstraSearch search = search(adjacency.order());
+        search.runAStar(adjacency, nFrom, nTo,
+                (v) -> heuristic.estimate(nodes.get(v).getElement(), to));
+        return buildPath(search.previous, search.cost, nTo);
+    }
+
+    /**
+     * Método que devuelve la adyacencia compacta del grafo en su estado actual,
+     * sobre la que trabajan los algoritmos de búsqueda
+     *
+     * @return adyacencia compacta
+     */
+    abstract CompressedAdjacency adjacency();
+
     protected abstract double getWeight(E from, E to);
 
 }
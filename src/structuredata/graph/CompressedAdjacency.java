@@ -0,0 +1,326 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.util.Arrays;
+
+/**
+ * Adyacencia compacta en formato CSR (compressed sparse row). Las aristas que
+ * salen del vértice v ocupan las posiciones [begin(v), end(v)) de los arrays
+ * de destinos y pesos, ordenadas por destino.
+ * <p>
+ * Los algoritmos solo acceden a la adyacencia a través de estos métodos, de
+ * modo que los arrays pueden estar en memoria del montículo o en un fichero
+ * proyectado en memoria ({@link MappedAdjacency}).
+ *
+ * @author Quini Roiz
+ */
+abstract class CompressedAdjacency {
+
+    // traspuesta calculada bajo demanda y reutilizada
+    private volatile CompressedAdjacency transpose;
+
+    /**
+     * Crea una adyacencia en memoria a partir de sus arrays, que no se copian
+     *
+     * @param offsets inicio de las aristas de cada vértice, con n + 1 entradas
+     * @param targets destino de cada arista
+     * @param weights peso de cada arista
+     * @return adyacencia compacta
+     */
+    static CompressedAdjacency of(int[] offsets, int[] targets, double[] weights) {
+        return new HeapAdjacency(offsets, targets, weights);
+    }
+
+    /**
+     * Enlaza dos adyacencias como traspuesta la una de la otra, cuando ya se
+     * dispone de ambas y no hay que calcularla
+     *
+     * @param adjacency adyacencia
+     * @param transpose su traspuesta
+     */
+    static void link(CompressedAdjacency adjacency, CompressedAdjacency transpose) {
+        transpose.transpose = adjacency;
+        adjacency.transpose = transpose;
+    }
+
+    /**
+     * Construye la adyacencia a partir de una lista de aristas sin ordenar. Si
+     * una arista aparece varias veces prevalece la última, y las de peso 0 se
+     * descartan (igual que en la matriz de adyacencia, 0 significa sin
+     * conexión).
+     *
+     * @param n número de vértices
+     * @param from orígenes de las aristas
+     * @param to destinos de las aristas
+     * @param w pesos de las aristas
+     * @param m número de aristas válidas en los arrays
+     * @return adyacencia compacta
+     */
+    static CompressedAdjacency of(int n, int[] from, int[] to, double[] w, int m) {
+        // primera pasada: ordenación por destino (estable)
+        int[] byTarget = countingSort(n, to, identity(m), m);
+        // segunda pasada: ordenación estable por origen, quedando las filas
+        // ordenadas por destino y las repeticiones en orden de inserción
+        int[] order = countingSort(n, from, byTarget, m);
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int e = 0;
+        int k = 0;
+        while (k < m) {
+            int i = order[k];
+            // saltamos a la última repetición de la misma arista
+            while (k + 1 < m && from[order[k + 1]] == from[i] && to[order[k + 1]] == to[i]) {
+                i = order[++k];
+            }
+            if (w[i] != 0) {
+                offsets[from[i] + 1]++;
+                targets[e] = to[i];
+                weights[e] = w[i];
+                e++;
+            }
+            k++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        if (e < m) {
+            targets = Arrays.copyOf(targets, e);
+            weights = Arrays.copyOf(weights, e);
+        }
+        return of(offsets, targets, weights);
+    }
+
+    /**
+     * Construye la adyacencia a partir de una matriz de adyacencia, donde un
+     * peso 0 significa que no hay conexión
+     *
+     * @param matrix matriz de adyacencia
+     * @param n número de vértices
+     * @return adyacencia compacta
+     */
+    static CompressedAdjacency of(double[][] matrix, int n) {
+        int[] offsets = new int[n + 1];
+        int rows = Math.min(n, matrix.length);
+        for (int i = 0; i < rows; i++) {
+            int count = 0;
+            int columns = Math.min(n, matrix[i].length);
+            for (int j = 0; j < columns; j++) {
+                if (matrix[i][j] != 0) {
+                    count++;
+                }
+            }
+            offsets[i + 1] = count;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int i = 0; i < rows; i++) {
+            int e = offsets[i];
+            int columns = Math.min(n, matrix[i].length);
+            for (int j = 0; j < columns; j++) {
+                if (matrix[i][j] != 0) {
+                    targets[e] = j;
+                    weights[e++] = matrix[i][j];
+                }
+            }
+        }
+        return of(offsets, targets, weights);
+    }
+
+    /**
+     * Construye la adyacencia a partir de una matriz de adyacencia guardada en
+     * un único array, fila a fila
+     *
+     * @param matrix matriz plana
+     * @param stride separación entre el inicio de dos filas consecutivas
+     * @param n número de vértices
+     * @return adyacencia compacta
+     */
+    static CompressedAdjacency of(double[] matrix, int stride, int n) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int j = i * stride, end = j + n; j < end; j++) {
+                if (matrix[j] != 0) {
+                    count++;
+                }
+            }
+            offsets[i + 1] = offsets[i] + count;
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int e = offsets[i];
+            for (int j = 0; j < n; j++) {
+                double w = matrix[i * stride + j];
+                if (w != 0) {
+                    targets[e] = j;
+                    weights[e++] = w;
+                }
+            }
+        }
+        return of(offsets, targets, weights);
+    }
+
+    // ordenación por conteo de 'items' según la clave keys[item]
+    private static int[] countingSort(int n, int[] keys, int[] items, int m) {
+        int[] count = new int[n + 1];
+        for (int k = 0; k < m; k++) {
+            count[keys[items[k]] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            count[v + 1] += count[v];
+        }
+        int[] sorted = new int[m];
+        for (int k = 0; k < m; k++) {
+            sorted[count[keys[items[k]]]++] = items[k];
+        }
+        return sorted;
+    }
+
+    private static int[] identity(int m) {
+        int[] a = new int[m];
+        for (int i = 0; i < m; i++) {
+            a[i] = i;
+        }
+        return a;
+    }
+
+    abstract int order();
+
+    abstract int edges();
+
+    abstract int begin(int v);
+
+    abstract int end(int v);
+
+    abstract int target(int e);
+
+    abstract double weight(int e);
+
+    /**
+     * Método que devuelve el peso de la arista entre dos vértices, buscándola
+     * por bisección en la fila ordenada del origen
+     *
+     * @param from vértice origen
+     * @param to vértice destino
+     * @return peso de la arista o 0 si no están conectados
+     */
+    double weight(int from, int to) {
+        int low = begin(from);
+        int high = end(from) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int t = target(mid);
+            if (t < to) {
+                low = mid + 1;
+            } else if (t > to) {
+                high = mid - 1;
+            } else {
+                return weight(mid);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Método que devuelve la adyacencia con todas las aristas invertidas. Se
+     * calcula la primera vez y se guarda para las siguientes.
+     *
+     * @return adyacencia traspuesta
+     */
+    CompressedAdjacency transpose() {
+        CompressedAdjacency t = transpose;
+        if (t == null) {
+            t = transposeArrays();
+            t.transpose = this;
+            transpose = t;
+        }
+        return t;
+    }
+
+    private CompressedAdjacency transposeArrays() {
+        int n = order();
+        int m = edges();
+        int[] offsetsT = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsetsT[target(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsetsT[v + 1] += offsetsT[v];
+        }
+        int[] next = Arrays.copyOf(offsetsT, n);
+        int[] targetsT = new int[m];
+        double[] weightsT = new double[m];
+        // recorriendo los orígenes en orden las filas traspuestas quedan ordenadas
+        for (int v = 0; v < n; v++) {
+            for (int e = begin(v), end = end(v); e < end; e++) {
+                int p = next[target(e)]++;
+                targetsT[p] = v;
+                weightsT[p] = weight(e);
+            }
+        }
+        return of(offsetsT, targetsT, weightsT);
+    }
+
+    /**
+     * Adyacencia con los arrays en el montículo de Java
+     */
+    private static final class HeapAdjacency extends CompressedAdjacency {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+
+        HeapAdjacency(int[] offsets, int[] targets, double[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        @Override
+        int order() {
+            return offsets.length - 1;
+        }
+
+        @Override
+        int edges() {
+            return targets.length;
+        }
+
+        @Override
+        int begin(int v) {
+            return offsets[v];
+        }
+
+        @Override
+        int end(int v) {
+            return offsets[v + 1];
+        }
+
+        @Override
+        int target(int e) {
+            return targets[e];
+        }
+
+        @Override
+        double weight(int e) {
+            return weights[e];
+        }
+
+        @Override
+        double weight(int from, int to) {
+            int e = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+            return e >= 0 ? weights[e] : 0;
+        }
+    }
+}
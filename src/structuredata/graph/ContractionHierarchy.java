@@ -0,0 +1,493 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import structuredata.node.Node;
+import structuredata.queue.IndexedDoubleHeap;
+
+/**
+ * Jerarquía de contracción de un grafo, para responder muchas consultas de
+ * rutas sobre un grafo que cambia poco.
+ * <p>
+ * En el preprocesado se ordenan los vértices por importancia y se van
+ * contrayendo de menos a más importante; al contraer un vértice se añaden
+ * atajos entre sus vecinos cuando la ruta por él es la única mínima. Las
+ * consultas son un Dijkstra bidireccional que solo sube en importancia, por lo
+ * que procesan una fracción mínima del grafo, y los atajos de la ruta
+ * encontrada se desempaquetan en las conexiones originales.
+ * <p>
+ * La jerarquía refleja el estado del grafo al crearla: si el grafo cambia hay
+ * que volver a construirla. Las consultas pueden ejecutarse concurrentemente.
+ *
+ * @author Quini Roiz
+ * @param <E> Tipo de los elementos del grafo
+ */
+public class ContractionHierarchy<E> {
+
+    // vértices asentados como máximo en cada búsqueda de testigos, al
+    // contraer y al simular la contracción para calcular la prioridad
+    private static final int WITNESS_LIMIT = 256;
+    private static final int SIMULATION_LIMIT = 32;
+
+    private final AbstractGraph<E> graph;
+    private final int[] rank;
+    // aristas hacia vértices de mayor rango, en su sentido original
+    private final CompressedAdjacency upward;
+    private final int[] upwardMiddle;
+    // aristas desde vértices de mayor rango, guardadas invertidas
+    private final CompressedAdjacency downward;
+    private final int[] downwardMiddle;
+    private final int shortcuts;
+
+    /**
+     * Construye la jerarquía de contracción del grafo en su estado actual
+     *
+     * @param graph grafo de este paquete sobre el que trabajar
+     */
+    public ContractionHierarchy(Graph<E> graph) {
+        if (!(graph instanceof AbstractGraph)) {
+            throw new IllegalArgumentException("Implementación de grafo no soportada");
+        }
+        this.graph = (AbstractGraph<E>) graph;
+        Contraction contraction = new Contraction(this.graph.adjacency());
+        contraction.contractAll();
+        int n = contraction.n;
+        rank = contraction.rank;
+        shortcuts = contraction.shortcuts;
+        // las listas de cada vértice contraído son sus aristas hacia arriba
+        int[] upOffsets = new int[n + 1];
+        int[] downOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] = upOffsets[v] + contraction.out[v].size;
+            downOffsets[v + 1] = downOffsets[v] + contraction.in[v].size;
+        }
+        int[] upTargets = new int[upOffsets[n]];
+        double[] upWeights = new double[upOffsets[n]];
+        upwardMiddle = new int[upOffsets[n]];
+        int[] downTargets = new int[downOffsets[n]];
+        double[] downWeights = new double[downOffsets[n]];
+        downwardMiddle = new int[downOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            Edges out = contraction.out[v];
+            System.arraycopy(out.target, 0, upTargets, upOffsets[v], out.size);
+            System.arraycopy(out.weight, 0, upWeights, upOffsets[v], out.size);
+            System.arraycopy(out.middle, 0, upwardMiddle, upOffsets[v], out.size);
+            Edges in = contraction.in[v];
+            System.arraycopy(in.target, 0, downTargets, downOffsets[v], in.size);
+            System.arraycopy(in.weight, 0, downWeights, downOffsets[v], in.size);
+            System.arraycopy(in.middle, 0, downwardMiddle, downOffsets[v], in.size);
+        }
+        upward = CompressedAdjacency.of(upOffsets, upTargets, upWeights);
+        downward = CompressedAdjacency.of(downOffsets, downTargets, downWeights);
+    }
+
+    /**
+     * Método que devuelve el número de atajos añadidos en el preprocesado
+     *
+     * @return número de atajos
+     */
+    public int shortcuts() {
+        return shortcuts;
+    }
+
+    /**
+     * Método que calcula la distancia mínima entre dos nodos
+     *
+     * @param from Nodo partida
+     * @param to Nodo destino
+     * @return distancia mínima o infinito si no hay ruta
+     */
+    public double distance(E from, E to) {
+        DijkstraSearch f = search(from, to);
+        return f.meetingCost;
+    }
+
+    /**
+     * Método que calcula la ruta más corta entre dos nodos, con los atajos ya
+     * desempaquetados en las conexiones originales del grafo
+     *
+     * @param from Nodo partida
+     * @param to Nodo destino
+     * @return path o ruta encontrada, vacía si no existe
+     */
+    public List<Node<E>> shortestPath(E from, E to) {
+        DijkstraSearch f = search(from, to);
+        DijkstraSearch b = graph.reverseSearch(rank.length);
+        int meeting = f.meetingVertex;
+        if (meeting < 0 || (f.previous[meeting] < 0 && b.previous[meeting] < 0)) {
+            return new ArrayList<>();
+        }
+        // mitad ascendente, desde el origen hasta el punto de encuentro
+        int half = 0;
+        for (int v = meeting; v >= 0; v = f.previous[v]) {
+            half++;
+        }
+        int[] up = new int[half];
+        for (int v = meeting; v >= 0; v = f.previous[v]) {
+            up[--half] = v;
+        }
+        Route route = new Route(up[0]);
+        for (int i = 1; i < up.length; i++) {
+            unpack(up[i - 1], up[i], route);
+        }
+        // mitad descendente, desde el punto de encuentro hasta el destino
+        for (int v = meeting; b.previous[v] >= 0; v = b.previous[v]) {
+            unpack(v, b.previous[v], route);
+        }
+        return graph.buildPath(Arrays.copyOf(route.vertices, route.length),
+                Arrays.copyOf(route.cost, route.length));
+    }
+
+    // búsqueda bidireccional ascendente, devuelve la búsqueda hacia delante
+    private DijkstraSearch search(E from, E to) {
+        int nFrom = graph.indexOf(from);
+        int nTo = graph.indexOf(to);
+        if (nFrom < 0 || nTo < 0 || nFrom >= rank.length || nTo >= rank.length) {
+            throw new NullPointerException();
+        }
+        DijkstraSearch f = graph.search(rank.length);
+        DijkstraSearch b = graph.reverseSearch(rank.length);
+        b.start(nTo);
+        f.start(nFrom, b);
+        // cada sentido se detiene cuando ya no puede mejorar la mejor ruta
+        while (true) {
+            boolean forward = f.hasNext() && f.nextCost() < f.meetingCost;
+            boolean backward = b.hasNext() && b.nextCost() < f.meetingCost;
+            if (forward && (!backward || f.nextCost() <= b.nextCost())) {
+                f.settleNext(upward);
+            } else if (backward) {
+                b.settleNext(downward);
+            } else {
+                return f;
+            }
+        }
+    }
+
+    // añade a la ruta los vértices de la arista (u, w) sin contar u,
+    // desempaquetando los atajos en las conexiones originales
+    private void unpack(int u, int w, Route route) {
+        int[] stack = new int[8];
+        int top = 0;
+        stack[top++] = u;
+        stack[top++] = w;
+        while (top > 0) {
+            int b = stack[--top];
+            int a = stack[--top];
+            int edge = edge(a, b);
+            int middle = middle(edge);
+            if (middle < 0) {
+                route.add(b, weight(edge));
+            } else {
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                // se apila encima la parte (a, middle) para procesarla antes
+                stack[top++] = middle;
+                stack[top++] = b;
+                stack[top++] = a;
+                stack[top++] = middle;
+            }
+        }
+    }
+
+    // arista (a, b): índice en 'upward' si es positivo o en 'downward' (-e - 1)
+    private int edge(int a, int b) {
+        if (rank[a] < rank[b]) {
+            for (int e = upward.begin(a); e < upward.end(a); e++) {
+                if (upward.target(e) == b) {
+                    return e;
+                }
+            }
+        } else {
+            for (int e = downward.begin(b); e < downward.end(b); e++) {
+                if (downward.target(e) == a) {
+                    return -e - 1;
+                }
+            }
+        }
+        throw new IllegalStateException("Arista inexistente " + a + " -> " + b);
+    }
+
+    private int middle(int edge) {
+        return edge >= 0 ? upwardMiddle[edge] : downwardMiddle[-edge - 1];
+    }
+
+    private double weight(int edge) {
+        return edge >= 0 ? upward.weight(edge) : downward.weight(-edge - 1);
+    }
+
+    /**
+     * Ruta en construcción: vértices y coste acumulado en cada uno
+     */
+    private static final class Route {
+
+        int[] vertices = new int[16];
+        double[] cost = new double[16];
+        int length;
+
+        Route(int first) {
+            vertices[length++] = first;
+        }
+
+        void add(int v, double weight) {
+            if (length == vertices.length) {
+                vertices = Arrays.copyOf(vertices, length * 2);
+                cost = Arrays.copyOf(cost, length * 2);
+            }
+            vertices[length] = v;
+            cost[length] = cost[length - 1] + weight;
+            length++;
+        }
+    }
+
+    /**
+     * Lista de aristas de un vértice (destino, peso y vértice intermedio si es
+     * un atajo, -1 si es una conexión original)
+     */
+    private static final class Edges {
+
+        int[] target;
+        double[] weight;
+        int[] middle;
+        int size;
+
+        Edges(int capacity) {
+            target = new int[Math.max(capacity, 2)];
+            weight = new double[target.length];
+            middle = new int[target.length];
+        }
+
+        int find(int v) {
+            for (int i = 0; i < size; i++) {
+                if (target[i] == v) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void add(int v, double w, int m) {
+            if (size == target.length) {
+                target = Arrays.copyOf(target, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+                middle = Arrays.copyOf(middle, size * 2);
+            }
+            target[size] = v;
+            weight[size] = w;
+            middle[size++] = m;
+        }
+
+        void remove(int v) {
+            int i = find(v);
+            if (i >= 0) {
+                size--;
+                target[i] = target[size];
+                weight[i] = weight[size];
+                middle[i] = middle[size];
+            }
+        }
+    }
+
+    /**
+     * Estado del preprocesado: el grafo en listas de adyacencia modificables
+     * (de salida y de entrada) al que se van añadiendo los atajos, y la
+     * búsqueda local de testigos. Al contraer un vértice se retira de las
+     * listas de sus vecinos y las suyas quedan fijas: contienen justo sus
+     * aristas con vértices de mayor rango.
+     */
+    private static final class Contraction {
+
+        final int n;
+        final Edges[] out;
+        final Edges[] in;
+        final boolean[] contracted;
+        // vecinos ya contraídos y nivel en la jerarquía de cada vértice
+        final int[] deleted;
+        final int[] level;
+        final int[] rank;
+        int shortcuts;
+
+        // búsqueda de testigos, con los destinos marcados con 'stamp'
+        private final double[] dist;
+        private final int[] mark;
+        private int stamp;
+        private final int[] touched;
+        private int touchedSize;
+        private final IndexedDoubleHeap heap;
+
+        Contraction(CompressedAdjacency adjacency) {
+            n = adjacency.order();
+            out = new Edges[n];
+            in = new Edges[n];
+            contracted = new boolean[n];
+            deleted = new int[n];
+            level = new int[n];
+            rank = new int[n];
+            dist = new double[n];
+            mark = new int[n];
+            touched = new int[n];
+            heap = new IndexedDoubleHeap(n);
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            CompressedAdjacency reverse = adjacency.transpose();
+            for (int v = 0; v < n; v++) {
+                out[v] = new Edges(adjacency.end(v) - adjacency.begin(v));
+                for (int e = adjacency.begin(v); e < adjacency.end(v); e++) {
+                    if (adjacency.target(e) != v) {
+                        out[v].add(adjacency.target(e), adjacency.weight(e), -1);
+                    }
+                }
+                in[v] = new Edges(reverse.end(v) - reverse.begin(v));
+                for (int e = reverse.begin(v); e < reverse.end(v); e++) {
+                    if (reverse.target(e) != v) {
+                        in[v].add(reverse.target(e), reverse.weight(e), -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Contrae todos los vértices, de menor a mayor prioridad
+         */
+        void contractAll() {
+            IndexedDoubleHeap queue = new IndexedDoubleHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insert(v, priority(v));
+            }
+            int next = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // actualización perezosa: si ha empeorado se vuelve a encolar
+                double p = priority(v);
+                if (!queue.isEmpty() && p > queue.peekKey()) {
+                    queue.insert(v, p);
+                    continue;
+                }
+                contract(v, false);
+                contracted[v] = true;
+                rank[v] = next++;
+                // lo retiramos de sus vecinos, que cambian de prioridad
+                for (int i = 0; i < in[v].size; i++) {
+                    out[in[v].target[i]].remove(v);
+                }
+                for (int i = 0; i < out[v].size; i++) {
+                    in[out[v].target[i]].remove(v);
+                }
+                for (int i = 0; i < in[v].size; i++) {
+                    neighbourContracted(queue, v, in[v].target[i]);
+                }
+                for (int i = 0; i < out[v].size; i++) {
+                    neighbourContracted(queue, v, out[v].target[i]);
+                }
+            }
+        }
+
+        private void neighbourContracted(IndexedDoubleHeap queue, int v, int u) {
+            if (queue.contains(u)) {
+                deleted[u]++;
+                level[u] = Math.max(level[u], level[v] + 1);
+                queue.changeKey(u, priority(u));
+            }
+        }
+
+        // diferencia de aristas, vecinos ya contraídos y nivel
+        private double priority(int v) {
+            int degree = in[v].size + out[v].size;
+            return 2 * contract(v, true) - degree + deleted[v] + level[v];
+        }
+
+        /**
+         * Calcula los atajos necesarios al contraer v y, si no es simulación,
+         * los añade al grafo
+         *
+         * @return número de atajos necesarios
+         */
+        private int contract(int v, boolean simulate) {
+            int count = 0;
+            Edges outV = out[v];
+            Edges inV = in[v];
+            double maxOut = 0;
+            stamp++;
+            for (int j = 0; j < outV.size; j++) {
+                maxOut = Math.max(maxOut, outV.weight[j]);
+                mark[outV.target[j]] = stamp;
+            }
+            for (int i = 0; i < inV.size; i++) {
+                int u = inV.target[i];
+                double toV = inV.weight[i];
+                int targets = mark[u] == stamp ? outV.size - 1 : outV.size;
+                witness(u, v, toV + maxOut, targets, simulate ? SIMULATION_LIMIT : WITNESS_LIMIT);
+                for (int j = 0; j < outV.size; j++) {
+                    int w = outV.target[j];
+                    double c = toV + outV.weight[j];
+                    // sin ruta alternativa igual o mejor hace falta un atajo
+                    if (w != u && dist[w] > c) {
+                        count++;
+                        if (!simulate) {
+                            addShortcut(u, w, c, v);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Dijkstra local desde 'source' sin pasar por 'excluded', hasta asentar
+        // los destinos marcados, superar el coste 'limit' o asentar
+        // 'maxSettled' vértices
+        private void witness(int source, int excluded, double limit, int targets, int maxSettled) {
+            for (int i = 0; i < touchedSize; i++) {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedSize = 0;
+            dist[source] = 0;
+            touched[touchedSize++] = source;
+            heap.insert(source, 0);
+            int settled = 0;
+            while (targets > 0 && !heap.isEmpty() && heap.peekKey() <= limit && settled < maxSettled) {
+                int a = heap.poll();
+                settled++;
+                if (mark[a] == stamp && a != source) {
+                    targets--;
+                }
+                Edges outA = out[a];
+                for (int i = 0; i < outA.size; i++) {
+                    int b = outA.target[i];
+                    double c = dist[a] + outA.weight[i];
+                    if (b != excluded && c < dist[b]) {
+                        if (dist[b] == Double.POSITIVE_INFINITY) {
+                            touched[touchedSize++] = b;
+                        }
+                        dist[b] = c;
+                        heap.update(b, c);
+                    }
+                }
+            }
+            heap.clear();
+        }
+
+        private void addShortcut(int u, int w, double weight, int middle) {
+            int i = out[u].find(w);
+            if (i < 0) {
+                out[u].add(w, weight, middle);
+                in[w].add(u, weight, middle);
+                shortcuts++;
+            } else if (weight < out[u].weight[i]) {
+                // ya existe la conexión: solo se mejora su peso
+                out[u].weight[i] = weight;
+                out[u].middle[i] = middle;
+                int j = in[w].find(u);
+                in[w].weight[j] = weight;
+                in[w].middle[j] = middle;
+                shortcuts++;
+            }
+        }
+    }
+}
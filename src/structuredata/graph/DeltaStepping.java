@@ -0,0 +1,346 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import structuredata.node.Node;
+
+/**
+ * Caminos mínimos desde un origen a todos los vértices con el algoritmo
+ * delta-stepping (Meyer y Sanders), que reparte las relajaciones entre los
+ * hilos de un {@link ForkJoinPool}.
+ * <p>
+ * Los vértices se agrupan en cubos según su distancia provisional, de
+ * anchura delta. Se procesa el cubo de menor distancia relajando en paralelo
+ * las aristas ligeras (peso no mayor que delta), que pueden volver a llenar
+ * el mismo cubo, hasta vaciarlo; después se relajan de una vez las aristas
+ * pesadas de todos los vértices que pasaron por él. Con delta pequeño se
+ * parece a Dijkstra y con delta grande a Bellman-Ford: el valor por defecto
+ * es el peso medio de las aristas.
+ * <p>
+ * Las distancias son exactamente las de Dijkstra, y las rutas se reconstruyen
+ * eligiendo siempre el menor predecesor válido, por lo que el resultado no
+ * depende del reparto entre hilos. Refleja el estado del grafo al crearlo.
+ *
+ * @author Quini Roiz
+ * @param <E> Tipo de los elementos del grafo
+ */
+public class DeltaStepping<E> {
+
+    // vértices de la frontera que relaja como mínimo cada tarea
+    private static final int GRAIN = 256;
+
+    private final AbstractGraph<E> graph;
+    private final CompressedAdjacency adjacency;
+    private final double delta;
+    private final ForkJoinPool pool;
+
+    /**
+     * Prepara el cálculo sobre el grafo en su estado actual, con el peso
+     * medio de las aristas como anchura de cubo y el pool común
+     *
+     * @param graph grafo de este paquete sobre el que trabajar
+     */
+    public DeltaStepping(Graph<E> graph) {
+        this(graph, Double.NaN, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Prepara el cálculo sobre el grafo en su estado actual
+     *
+     * @param graph grafo de este paquete sobre el que trabajar
+     * @param delta anchura de los cubos de distancia, mayor que 0
+     * @param pool pool en el que relajar las aristas
+     */
+    public DeltaStepping(Graph<E> graph, double delta, ForkJoinPool pool) {
+        if (!(graph instanceof AbstractGraph)) {
+            throw new IllegalArgumentException("Implementación de grafo no soportada");
+        }
+        this.graph = (AbstractGraph<E>) graph;
+        this.adjacency = this.graph.adjacency();
+        if (Double.isNaN(delta)) {
+            double total = 0;
+            for (int e = 0; e < adjacency.edges(); e++) {
+                total += adjacency.weight(e);
+            }
+            delta = adjacency.edges() == 0 ? 1 : total / adjacency.edges();
+        }
+        if (!(delta > 0)) {
+            throw new IllegalArgumentException("La anchura de cubo debe ser mayor que 0");
+        }
+        this.delta = delta;
+        this.pool = pool;
+    }
+
+    /**
+     * Método que devuelve la anchura de los cubos de distancia
+     *
+     * @return delta
+     */
+    public double delta() {
+        return delta;
+    }
+
+    /**
+     * Método que calcula la distancia mínima desde un origen a todos los
+     * vértices
+     *
+     * @param source elemento origen
+     * @return distancia de cada vértice por posición, infinito si no es
+     * alcanzable
+     */
+    public double[] distances(E source) {
+        return run(vertex(source));
+    }
+
+    /**
+     * Método que calcula la ruta más corta entre dos nodos
+     *
+     * @param from Nodo partida
+     * @param to Nodo destino
+     * @return path o ruta encontrada, vacía si no existe
+     */
+    public List<Node<E>> shortestPath(E from, E to) {
+        int nTo = vertex(to);
+        double[] cost = run(vertex(from));
+        int[] previous = new int[cost.length];
+        pool.invoke(new PredecessorTask(adjacency.transpose(), cost, previous, 0, cost.length));
+        return graph.buildPath(previous, cost, nTo);
+    }
+
+    private int vertex(E element) {
+        int v = graph.indexOf(element);
+        if (v < 0) {
+            throw new NullPointerException();
+        }
+        return v;
+    }
+
+    private double[] run(int source) {
+        int n = adjacency.order();
+        AtomicLongArray distance = new AtomicLongArray(n);
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int v = 0; v < n; v++) {
+            distance.set(v, infinity);
+        }
+        // cubo en el que está encolado cada vértice, -1 si en ninguno
+        long[] bucketOf = new long[n];
+        Arrays.fill(bucketOf, -1);
+        // marca de los vértices que han pasado por el cubo actual
+        long[] settledIn = new long[n];
+        Arrays.fill(settledIn, -1);
+        TreeMap<Long, Frontier> buckets = new TreeMap<>();
+        distance.set(source, Double.doubleToRawLongBits(0));
+        Frontier first = new Frontier();
+        first.add(source);
+        buckets.put(0L, first);
+        bucketOf[source] = 0;
+        while (!buckets.isEmpty()) {
+            long i = buckets.firstKey();
+            Frontier settled = new Frontier();
+            // aristas ligeras, hasta que el cubo deje de llenarse
+            while (!buckets.isEmpty() && buckets.firstKey() == i) {
+                Frontier taken = buckets.pollFirstEntry().getValue();
+                Frontier frontier = new Frontier();
+                for (int k = 0; k < taken.size; k++) {
+                    int v = taken.items[k];
+                    // las entradas de vértices que se movieron de cubo se ignoran
+                    if (bucketOf[v] == i) {
+                        bucketOf[v] = -1;
+                        frontier.add(v);
+                        if (settledIn[v] != i) {
+                            settledIn[v] = i;
+                            settled.add(v);
+                        }
+                    }
+                }
+                distribute(relax(distance, frontier, true), distance, bucketOf, buckets);
+            }
+            // aristas pesadas, que siempre llevan a cubos posteriores
+            distribute(relax(distance, settled, false), distance, bucketOf, buckets);
+        }
+        double[] result = new double[n];
+        for (int v = 0; v < n; v++) {
+            result[v] = Double.longBitsToDouble(distance.get(v));
+        }
+        return result;
+    }
+
+    private Frontier relax(AtomicLongArray distance, Frontier frontier, boolean light) {
+        if (frontier.size == 0) {
+            return frontier;
+        }
+        return pool.invoke(new RelaxTask(distance, frontier, light, 0, frontier.size));
+    }
+
+    // encola los vértices mejorados en el cubo de su nueva distancia
+    private void distribute(Frontier improved, AtomicLongArray distance, long[] bucketOf,
+            TreeMap<Long, Frontier> buckets) {
+        long last = -1;
+        Frontier bucket = null;
+        for (int k = 0; k < improved.size; k++) {
+            int v = improved.items[k];
+            long b = (long) (Double.longBitsToDouble(distance.get(v)) / delta);
+            if (bucketOf[v] != b) {
+                bucketOf[v] = b;
+                if (b != last) {
+                    Map.Entry<Long, Frontier> entry = buckets.ceilingEntry(b);
+                    if (entry != null && entry.getKey() == b) {
+                        bucket = entry.getValue();
+                    } else {
+                        bucket = new Frontier();
+                        buckets.put(b, bucket);
+                    }
+                    last = b;
+                }
+                bucket.add(v);
+            }
+        }
+    }
+
+    // reduce atómicamente la distancia de v a c, si es menor
+    private static boolean decrease(AtomicLongArray distance, int v, double c) {
+        long bits = Double.doubleToRawLongBits(c);
+        long old;
+        do {
+            old = distance.get(v);
+            if (Double.longBitsToDouble(old) <= c) {
+                return false;
+            }
+        } while (!distance.compareAndSet(v, old, bits));
+        return true;
+    }
+
+    /**
+     * Lista de vértices que crece según se añaden
+     */
+    private static final class Frontier {
+
+        int[] items = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = v;
+        }
+
+        Frontier addAll(Frontier other) {
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+            return this;
+        }
+    }
+
+    /**
+     * Tarea que relaja las aristas ligeras o pesadas de un trozo de la
+     * frontera y devuelve los vértices mejorados
+     */
+    private final class RelaxTask extends RecursiveTask<Frontier> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicLongArray distance;
+        private final Frontier frontier;
+        private final boolean light;
+        private final int begin;
+        private final int end;
+
+        RelaxTask(AtomicLongArray distance, Frontier frontier, boolean light, int begin, int end) {
+            this.distance = distance;
+            this.frontier = frontier;
+            this.light = light;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected Frontier compute() {
+            if (end - begin > GRAIN) {
+                int middle = (begin + end) >>> 1;
+                RelaxTask left = new RelaxTask(distance, frontier, light, begin, middle);
+                left.fork();
+                Frontier right = new RelaxTask(distance, frontier, light, middle, end).compute();
+                return left.join().addAll(right);
+            }
+            Frontier improved = new Frontier();
+            for (int k = begin; k < end; k++) {
+                int u = frontier.items[k];
+                double c = Double.longBitsToDouble(distance.get(u));
+                for (int e = adjacency.begin(u); e < adjacency.end(u); e++) {
+                    double w = adjacency.weight(e);
+                    if ((w <= delta) == light) {
+                        int v = adjacency.target(e);
+                        if (decrease(distance, v, c + w)) {
+                            improved.add(v);
+                        }
+                    }
+                }
+            }
+            return improved;
+        }
+    }
+
+    /**
+     * Tarea que elige como previo de cada vértice el menor predecesor por el
+     * que se alcanza su distancia mínima
+     */
+    private static final class PredecessorTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CompressedAdjacency reverse;
+        private final double[] cost;
+        private final int[] previous;
+        private final int begin;
+        private final int end;
+
+        PredecessorTask(CompressedAdjacency reverse, double[] cost, int[] previous, int begin, int end) {
+            this.reverse = reverse;
+            this.cost = cost;
+            this.previous = previous;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - begin > GRAIN * 16) {
+                int middle = (begin + end) >>> 1;
+                invokeAll(new PredecessorTask(reverse, cost, previous, begin, middle),
+                        new PredecessorTask(reverse, cost, previous, middle, end));
+                return;
+            }
+            for (int v = begin; v < end; v++) {
+                previous[v] = -1;
+                if (cost[v] == 0 || cost[v] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                // la traspuesta tiene las filas ordenadas: el primero es el menor
+                for (int e = reverse.begin(v); e < reverse.end(v); e++) {
+                    int u = reverse.target(e);
+                    if (cost[u] + reverse.weight(e) == cost[v]) {
+                        previous[v] = u;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
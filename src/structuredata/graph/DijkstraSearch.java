@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import structuredata.queue.IndexedDoubleHeap;
+
+/**
+ * Algoritmo de Dijkstra sobre vértices enteros de una adyacencia compacta.
+ * Guarda el estado de la búsqueda en arrays paralelos de costes y previos y
+ * utiliza un montículo indexado con reducción de prioridad, de modo que cada
+ * búsqueda es O((V + E) log V) y no crea objetos.
+ * <p>
+ * Los arrays se pueden reutilizar entre búsquedas: solo se reinician los
+ * vértices alcanzados por la búsqueda anterior. La búsqueda también puede
+ * avanzarse vértice a vértice, lo que permite combinar dos búsquedas en
+ * sentidos opuestos (Dijkstra bidireccional).
+ *
+ * @author Quini Roiz
+ */
+final class DijkstraSearch {
+
+    final double[] cost;
+    final int[] previous;
+    private final boolean[] settled;
+    private final IndexedDoubleHeap heap;
+    // vértices alcanzados por la última búsqueda, para reiniciarlos
+    private final int[] touched;
+    private int touchedSize;
+    // estimación de la heurística de A* para cada vértice alcanzado
+    private double[] estimate;
+    // marcas de los destinos pendientes en la búsqueda de uno a muchos
+    private boolean[] marked;
+
+    // búsqueda en sentido contrario, en el modo bidireccional
+    private DijkstraSearch opposite;
+    // mejor coste de ruta encontrado al cruzarse ambas búsquedas
+    double meetingCost;
+    int meetingVertex;
+
+    DijkstraSearch(int n) {
+        cost = new double[n];
+        previous = new int[n];
+        settled = new boolean[n];
+        heap = new IndexedDoubleHeap(n);
+        touched = new int[n];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+    }
+
+    int capacity() {
+        return cost.length;
+    }
+
+    /**
+     * Deja los arrays como recién creados, en tiempo proporcional a los
+     * vértices alcanzados en la última búsqueda
+     */
+    void reset() {
+        for (int i = 0; i < touchedSize; i++) {
+            int v = touched[i];
+            cost[v] = Double.POSITIVE_INFINITY;
+            previous[v] = -1;
+            settled[v] = false;
+        }
+        touchedSize = 0;
+        heap.clear();
+        opposite = null;
+        meetingCost = Double.POSITIVE_INFINITY;
+        meetingVertex = -1;
+    }
+
+    boolean isSettled(int v) {
+        return settled[v];
+    }
+
+    /**
+     * Prepara una búsqueda paso a paso desde un vértice
+     *
+     * @param from vértice origen
+     */
+    void start(int from) {
+        reset();
+        relax(from, -1, 0);
+    }
+
+    /**
+     * Prepara una búsqueda paso a paso que se cruzará con otra en sentido
+     * contrario, ya iniciada, anotando el mejor punto de encuentro
+     *
+     * @param from vértice origen
+     * @param opposite búsqueda en sentido contrario
+     */
+    void start(int from, DijkstraSearch opposite) {
+        reset();
+        this.opposite = opposite;
+        opposite.opposite = this;
+        relax(from, -1, 0);
+    }
+
+    boolean hasNext() {
+        return !heap.isEmpty();
+    }
+
+    /**
+     * Método que devuelve el coste del siguiente vértice que se asentará
+     *
+     * @return coste mínimo pendiente o infinito si no quedan vértices
+     */
+    double nextCost() {
+        return heap.peekKey();
+    }
+
+    /**
+     * Asienta el vértice pendiente de menor coste y relaja sus aristas
+     *
+     * @param adjacency adyacencia del grafo
+     * @return vértice asentado
+     */
+    int settleNext(CompressedAdjacency adjacency) {
+        // sacamos el vértice A de menor coste, que queda asentado
+        int a = heap.poll();
+        settled[a] = true;
+        double costA = cost[a];
+        for (int e = adjacency.begin(a); e < adjacency.end(a); e++) {
+            int b = adjacency.target(e);
+            if (!settled[b]) {
+                relax(b, a, costA + adjacency.weight(e));
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Método que calcula los caminos mínimos desde un vértice
+     *
+     * @param adjacency adyacencia del grafo
+     * @param from vértice origen
+     * @param to vértice destino en el que parar, o -1 para recorrer todos los
+     * alcanzables
+     */
+    void run(CompressedAdjacency adjacency, int from, int to) {
+        start(from);
+        while (hasNext()) {
+            if (heap.peek() == to) {
+                settled[heap.poll()] = true;
+                return;
+            }
+            settleNext(adjacency);
+        }
+    }
+
+    /**
+     * Método que calcula los caminos mínimos desde un vértice hasta varios
+     * destinos en una sola búsqueda, que se detiene al asentarlos todos
+     *
+     * @param adjacency adyacencia del grafo
+     * @param from vértice origen
+     * @param targets vértices destino, pueden repetirse
+     */
+    void run(CompressedAdjacency adjacency, int from, int[] targets) {
+        if (marked == null) {
+            marked = new boolean[cost.length];
+        }
+        start(from);
+        int pending = 0;
+        for (int t : targets) {
+            if (!marked[t]) {
+                marked[t] = true;
+                pending++;
+            }
+        }
+        while (pending > 0 && hasNext()) {
+            if (marked[settleNext(adjacency)]) {
+                pending--;
+            }
+        }
+        for (int t : targets) {
+            marked[t] = false;
+        }
+    }
+
+    /**
+     * Método que calcula el camino mínimo entre dos vértices con el algoritmo
+     * A*, ordenando por coste más estimación. Con una heurística admisible (que
+     * nunca sobreestima) el camino encontrado es mínimo; si además es
+     * consistente ningún vértice se procesa dos veces.
+     *
+     * @param adjacency adyacencia del grafo
+     * @param from vértice origen
+     * @param to vértice destino
+     * @param heuristic estimación del coste desde cada vértice al destino
+     */
+    void runAStar(CompressedAdjacency adjacency, int from, int to, IntToDoubleFunction heuristic) {
+        reset();
+        if (estimate == null) {
+            estimate = new double[cost.length];
+        }
+        touched[touchedSize++] = from;
+        cost[from] = 0;
+        estimate[from] = heuristic.applyAsDouble(from);
+        heap.insert(from, estimate[from]);
+        while (!heap.isEmpty()) {
+            int a = heap.poll();
+            settled[a] = true;
+            if (a == to) {
+                return;
+            }
+            double costA = cost[a];
+            for (int e = adjacency.begin(a); e < adjacency.end(a); e++) {
+                int b = adjacency.target(e);
+                double c = costA + adjacency.weight(e);
+                if (c < cost[b]) {
+                    if (cost[b] == Double.POSITIVE_INFINITY) {
+                        touched[touchedSize++] = b;
+                        estimate[b] = heuristic.applyAsDouble(b);
+                    }
+                    cost[b] = c;
+                    previous[b] = a;
+                    // si ya estaba asentado se reabre (heurística no consistente)
+                    settled[b] = false;
+                    heap.update(b, c + estimate[b]);
+                }
+            }
+        }
+    }
+
+    // actualiza el vértice v si se llega a él con menor coste desde 'from'
+    private void relax(int v, int from, double c) {
+        if (c < cost[v]) {
+            if (cost[v] == Double.POSITIVE_INFINITY) {
+                touched[touchedSize++] = v;
+            }
+            cost[v] = c;
+            previous[v] = from;
+            heap.update(v, c);
+            if (opposite != null) {
+                // ruta candidata pasando por v, si la otra búsqueda lo alcanzó
+                double meeting = c + opposite.cost[v];
+                if (meeting < meetingCost) {
+                    meetingCost = meeting;
+                    meetingVertex = v;
+                    opposite.meetingCost = meeting;
+                    opposite.meetingVertex = v;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import structuredata.node.Node;
+import structuredata.queue.IndexedDoubleHeap;
+
+/**
+ * Árbol de caminos mínimos desde un origen que se mantiene al día mientras
+ * cambia el grafo, sin repetir el algoritmo de Dijkstra completo.
+ * <p>
+ * El árbol se registra como observador del grafo y repara solo la parte
+ * afectada por cada cambio: si una conexión abarata la llegada a un vértice,
+ * se propaga la mejora desde él; si se encarece o elimina una conexión del
+ * árbol, se recalcula solo el subárbol que colgaba de ella, partiendo de los
+ * vértices no afectados que lo rodean. Los cambios en conexiones que no están
+ * en el árbol y no lo mejoran no cuestan nada.
+ * <p>
+ * Guarda su propia adyacencia por listas, para recorrer sucesores y
+ * predecesores de un vértice sin examinar una fila entera de la matriz. Los
+ * vértices cuya distancia cambia se avisan a los {@link Listener} registrados.
+ *
+ * @author Quini Roiz
+ * @param <E> Tipo de los elementos del grafo
+ */
+public class DynamicShortestPathTree<E> implements GraphListener<E> {
+
+    private final GraphAdyacencyMatrix<E> graph;
+    private final List<Listener<E>> listeners = new CopyOnWriteArrayList<>();
+
+    private Edges[] out;
+    private Edges[] in;
+    private double[] distance;
+    private int[] parent;
+    private int size;
+    private IndexedDoubleHeap heap;
+    // vértices del subárbol en reparación y vértices cambiados, con su
+    // distancia anterior
+    private boolean[] affected;
+    private boolean[] changed;
+    private double[] before;
+    private int[] pending;
+    private int pendingSize;
+
+    /**
+     * Calcula el árbol de caminos mínimos desde un origen y empieza a seguir
+     * los cambios del grafo
+     *
+     * @param graph grafo a seguir
+     * @param source elemento origen
+     */
+    public DynamicShortestPathTree(GraphAdyacencyMatrix<E> graph, E source) {
+        this.graph = graph;
+        synchronized (graph) {
+            int s = graph.indexOf(source);
+            if (s < 0) {
+                throw new NullPointerException();
+            }
+            CompressedAdjacency adjacency = graph.adjacency();
+            size = adjacency.order();
+            allocate(Math.max(size, 8));
+            for (int v = 0; v < size; v++) {
+                for (int e = adjacency.begin(v); e < adjacency.end(v); e++) {
+                    int w = adjacency.target(e);
+                    out[v].put(w, adjacency.weight(e));
+                    in[w].put(v, adjacency.weight(e));
+                }
+            }
+            distance[s] = 0;
+            heap.insert(s, 0);
+            propagate(false);
+            notifyChanges();
+            graph.addListener(this);
+        }
+    }
+
+    /**
+     * Método que devuelve la distancia mínima desde el origen
+     *
+     * @param to elemento destino
+     * @return distancia mínima o infinito si no hay ruta
+     */
+    public synchronized double distance(E to) {
+        return distance[vertex(to)];
+    }
+
+    /**
+     * Método que devuelve la ruta más corta desde el origen
+     *
+     * @param to elemento destino
+     * @return path o ruta encontrada, vacía si no existe
+     */
+    public synchronized List<Node<E>> shortestPath(E to) {
+        return graph.buildPath(parent, distance, vertex(to));
+    }
+
+    /**
+     * Método que registra un observador de los cambios de distancia
+     *
+     * @param listener observador a avisar
+     */
+    public void addListener(Listener<E> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Método que da de baja un observador de los cambios de distancia
+     *
+     * @param listener observador registrado
+     */
+    public void removeListener(Listener<E> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Deja de seguir los cambios del grafo. Las distancias quedan como
+     * estaban en ese momento.
+     */
+    public void close() {
+        graph.removeListener(this);
+    }
+
+    @Override
+    public synchronized void nodeAdded(E element) {
+        if (size == distance.length) {
+            allocate(size + (size >> 1));
+        }
+        size++;
+    }
+
+    @Override
+    public synchronized void connected(E from, E to, double previous, double weight) {
+        int u = graph.indexOf(from);
+        int v = graph.indexOf(to);
+        if (weight == 0) {
+            out[u].remove(v);
+            in[v].remove(u);
+        } else {
+            out[u].put(v, weight);
+            in[v].put(u, weight);
+        }
+        if (weight != 0 && (previous == 0 || weight < previous)) {
+            decrease(u, v, weight);
+        } else if (parent[v] == u) {
+            increase(v);
+        }
+        notifyChanges();
+    }
+
+    // la conexión u -> v se ha abaratado o es nueva
+    private void decrease(int u, int v, double weight) {
+        double c = distance[u] + weight;
+        if (c < distance[v]) {
+            record(v);
+            distance[v] = c;
+            parent[v] = u;
+            heap.insert(v, c);
+            propagate(false);
+        }
+    }
+
+    // la conexión del árbol que llega a v se ha encarecido o eliminado
+    private void increase(int v) {
+        // el subárbol de v son los sucesores cuyo padre está en él
+        int first = pendingSize;
+        record(v);
+        affected[v] = true;
+        for (int i = first; i < pendingSize; i++) {
+            int x = pending[i];
+            Edges edges = out[x];
+            for (int k = 0; k < edges.size; k++) {
+                int y = edges.vertices[k];
+                if (parent[y] == x && !affected[y]) {
+                    record(y);
+                    affected[y] = true;
+                }
+            }
+        }
+        for (int i = first; i < pendingSize; i++) {
+            int x = pending[i];
+            distance[x] = Double.POSITIVE_INFINITY;
+            parent[x] = -1;
+        }
+        // cada vértice afectado parte del mejor predecesor no afectado
+        for (int i = first; i < pendingSize; i++) {
+            int x = pending[i];
+            Edges edges = in[x];
+            for (int k = 0; k < edges.size; k++) {
+                int p = edges.vertices[k];
+                double c = distance[p] + edges.weights[k];
+                if (!affected[p] && c < distance[x]) {
+                    distance[x] = c;
+                    parent[x] = p;
+                }
+            }
+            if (parent[x] >= 0) {
+                heap.insert(x, distance[x]);
+            }
+        }
+        // el resto del grafo no cambia, así que solo se relajan afectados
+        propagate(true);
+        for (int i = first; i < pendingSize; i++) {
+            affected[pending[i]] = false;
+        }
+    }
+
+    // Dijkstra desde los vértices del montículo, solo por vértices afectados
+    // si 'restricted'
+    private void propagate(boolean restricted) {
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            double c = distance[x];
+            Edges edges = out[x];
+            for (int k = 0; k < edges.size; k++) {
+                int y = edges.vertices[k];
+                double cy = c + edges.weights[k];
+                if (cy < distance[y] && (!restricted || affected[y])) {
+                    record(y);
+                    distance[y] = cy;
+                    parent[y] = x;
+                    heap.update(y, cy);
+                }
+            }
+        }
+    }
+
+    // anota la distancia de v antes del cambio en curso
+    private void record(int v) {
+        if (!changed[v]) {
+            changed[v] = true;
+            before[v] = distance[v];
+            pending[pendingSize++] = v;
+        }
+    }
+
+    private void notifyChanges() {
+        for (int i = 0; i < pendingSize; i++) {
+            int v = pending[i];
+            changed[v] = false;
+            if (before[v] != distance[v] && !listeners.isEmpty()) {
+                E element = graph.nodes.get(v).getElement();
+                for (Listener<E> l : listeners) {
+                    l.changed(element, before[v], distance[v]);
+                }
+            }
+        }
+        pendingSize = 0;
+    }
+
+    private int vertex(E element) {
+        int v = graph.indexOf(element);
+        if (v < 0 || v >= size) {
+            throw new NullPointerException();
+        }
+        return v;
+    }
+
+    // amplía los arrays a 'capacity' vértices, conservando el estado
+    private void allocate(int capacity) {
+        int old = distance == null ? 0 : distance.length;
+        out = out == null ? new Edges[capacity] : Arrays.copyOf(out, capacity);
+        in = in == null ? new Edges[capacity] : Arrays.copyOf(in, capacity);
+        for (int v = old; v < capacity; v++) {
+            out[v] = new Edges();
+            in[v] = new Edges();
+        }
+        distance = distance == null ? new double[capacity] : Arrays.copyOf(distance, capacity);
+        Arrays.fill(distance, old, capacity, Double.POSITIVE_INFINITY);
+        parent = parent == null ? new int[capacity] : Arrays.copyOf(parent, capacity);
+        Arrays.fill(parent, old, capacity, -1);
+        heap = new IndexedDoubleHeap(capacity);
+        affected = new boolean[capacity];
+        changed = new boolean[capacity];
+        before = new double[capacity];
+        pending = new int[capacity];
+    }
+
+    /**
+     * Observador de los vértices cuya distancia al origen cambia
+     *
+     * @param <E> tipo de los elementos del grafo
+     */
+    @FunctionalInterface
+    public interface Listener<E> {
+
+        /**
+         * Método que se llama tras reparar el árbol, una vez por vértice
+         * cambiado
+         *
+         * @param element elemento del vértice
+         * @param previous distancia anterior, infinito si no era alcanzable
+         * @param distance distancia nueva, infinito si ya no es alcanzable
+         */
+        void changed(E element, double previous, double distance);
+    }
+
+    /**
+     * Conexiones de un vértice en arrays paralelos, sin orden
+     */
+    private static final class Edges {
+
+        int[] vertices = new int[4];
+        double[] weights = new double[4];
+        int size;
+
+        private int indexOf(int v) {
+            for (int k = 0; k < size; k++) {
+                if (vertices[k] == v) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        void put(int v, double weight) {
+            int k = indexOf(v);
+            if (k < 0) {
+                if (size == vertices.length) {
+                    vertices = Arrays.copyOf(vertices, size * 2);
+                    weights = Arrays.copyOf(weights, size * 2);
+                }
+                k = size++;
+                vertices[k] = v;
+            }
+            weights[k] = weight;
+        }
+
+        void remove(int v) {
+            int k = indexOf(v);
+            if (k >= 0) {
+                size--;
+                vertices[k] = vertices[size];
+                weights[k] = weights[size];
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Codificación binaria de los elementos de un grafo, necesaria para guardar
+ * la tabla de vértices en un fichero. Incluye codificaciones para los tipos
+ * más habituales.
+ *
+ * @author Quini Roiz
+ * @param <E> tipo de los elementos
+ */
+public interface ElementCodec<E> {
+
+    ElementCodec<String> STRING = new ElementCodec<String>() {
+        @Override
+        public void write(String element, DataOutput out) throws IOException {
+            out.writeUTF(element);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        @Override
+        public void write(Integer element, DataOutput out) throws IOException {
+            out.writeInt(element);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        @Override
+        public void write(Long element, DataOutput out) throws IOException {
+            out.writeLong(element);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    /**
+     * Método que escribe un elemento
+     *
+     * @param element elemento a escribir
+     * @param out salida binaria
+     * @throws IOException si falla la escritura
+     */
+    void write(E element, DataOutput out) throws IOException;
+
+    /**
+     * Método que lee un elemento escrito con {@link #write}
+     *
+     * @param in entrada binaria
+     * @return elemento leído
+     * @throws IOException si falla la lectura
+     */
+    E read(DataInput in) throws IOException;
+}
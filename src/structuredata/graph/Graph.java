@@ -1,6 +1,8 @@
 package structuredata.graph;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import structuredata.node.Node;
 
 /**
@@ -20,6 +22,13 @@ public interface Graph<E> {
      */
     void addNode(E element);
 
+    /**
+     * Añadiremos varios elementos al grafo de una vez
+     *
+     * @param elements elementos a añadir al grafo
+     */
+    void addNodes(Collection<E> elements);
+
     /**
      * Añadiremos una conexión entre dos nodos del grafo
      *
@@ -47,6 +56,64 @@ public interface Graph<E> {
      */
     List<Node<E>> shortestPath(E from, E to);
 
+    /**
+     * Método que calculará la ruta más corta entre dos nodos con el algoritmo
+     * Dijkstra bidireccional: avanza a la vez desde el origen y, por las
+     * conexiones invertidas, desde el destino, hasta que ambas búsquedas se
+     * cruzan. Suele procesar muchos menos nodos que la búsqueda en un sentido.
+     *
+     * @param from Nodo partida
+     * @param to Nodo destino
+     * @return path o ruta encontrada, vacía si no existe
+     */
+    List<Node<E>> bidirectionalShortestPath(E from, E to);
+
+    /**
+     * Método que calculará la ruta más corta entre dos nodos con el algoritmo
+     * A*, guiado por una estimación del coste restante hasta el destino
+     *
+     * @param from Nodo partida
+     * @param to Nodo destino
+     * @param heuristic heurística admisible (nunca sobreestima el coste real)
+     * @return path o ruta encontrada, vacía si no existe
+     */
+    List<Node<E>> shortestPath(E from, E to, Heuristic<E> heuristic);
+
+    /**
+     * Método que calcula la distancia mínima desde un nodo a varios destinos
+     * con una sola búsqueda, que termina al alcanzar todos los destinos
+     *
+     * @param source Nodo partida
+     * @param targets Nodos destino
+     * @return distancia a cada destino, en el orden de la colección, o
+     * infinito si no es alcanzable
+     */
+    double[] distances(E source, Collection<E> targets);
+
+    /**
+     * Método que calcula la matriz de distancias mínimas entre varios orígenes
+     * y varios destinos, repartiendo los orígenes entre los hilos del pool
+     * común de fork-join
+     *
+     * @param sources Nodos partida
+     * @param targets Nodos destino
+     * @return matriz con la distancia de cada origen (fila) a cada destino
+     * (columna), o infinito si no es alcanzable
+     */
+    double[][] distances(Collection<E> sources, Collection<E> targets);
+
+    /**
+     * Igual que {@link #distances(Collection, Collection)}, pero repartiendo
+     * el trabajo entre los hilos del pool indicado
+     *
+     * @param sources Nodos partida
+     * @param targets Nodos destino
+     * @param pool pool de fork-join en el que ejecutar las búsquedas
+     * @return matriz con la distancia de cada origen (fila) a cada destino
+     * (columna), o infinito si no es alcanzable
+     */
+    double[][] distances(Collection<E> sources, Collection<E> targets, ForkJoinPool pool);
+
     @Override
     public String toString();
 
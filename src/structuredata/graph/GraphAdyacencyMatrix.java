@@ -8,14 +8,24 @@
 package structuredata.graph;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import structuredata.node.Node;
 import structuredata.node.NodeImpl;
 
 /**
  * Implementación de la clase Grafo, utilizando una matriz de adyacencia
+ * <p>
+ * Las consultas de rutas no modifican los nodos del grafo: trabajan sobre una
+ * instantánea inmutable de la adyacencia y sobre un estado de búsqueda propio
+ * de cada hilo, por lo que pueden ejecutarse concurrentemente. Las
+ * modificaciones (addNode, connect) no deben solaparse con consultas; para
+ * servir consultas mientras el grafo cambia se puede publicar una
+ * instantánea con {@link #snapshot()}. Los cambios se pueden seguir
+ * registrando un {@link GraphListener}.
  *
  * @author Quini Roiz
  * @param <E> Utilizaremos los tipos genéricos de datos para trabajar en esta
@@ -23,164 +33,235 @@ import structuredata.node.NodeImpl;
  */
 public class GraphAdyacencyMatrix<E> extends AbstractGraph<E> {
 
+    // mayor capacidad con la que la matriz plana cabe en un array
+    private static final int MAX_FLAT_CAPACITY = 46340;
+
+    // matriz por filas, o null si se usa el almacenamiento plano
     private double[][] graph;
+    // matriz plana fila a fila (fila i en [i * capacity, (i + 1) * capacity))
+    private double[] flat;
+    private int capacity;
     private int size;
+    // adyacencia compacta del estado actual, null si hay que reconstruirla
+    private volatile CompressedAdjacency adjacency;
+    private final List<GraphListener<E>> listeners = new CopyOnWriteArrayList<>();
 
     public GraphAdyacencyMatrix() {
         this(0);
     }
 
     public GraphAdyacencyMatrix(int n) {
+        this(n, false);
+    }
+
+    /**
+     * Crea el grafo con capacidad inicial para n nodos
+     *
+     * @param n capacidad inicial
+     * @param flat true para guardar la matriz en un único array plano, fila a
+     * fila, evitando un objeto array por fila
+     */
+    public GraphAdyacencyMatrix(int n, boolean flat) {
         super();
-        graph = new double[n][n];
+        capacity = n;
+        if (flat) {
+            this.flat = new double[checkedArea(n)];
+        } else {
+            graph = new double[n][n];
+        }
     }
 
     @Override
-    public void addNode(E element) {
-        if (size++ > graph.length) {
-            ampliarMatriz();
+    public synchronized void addNode(E element) {
+        // un elemento ya existente no se vuelve a añadir
+        if (index.containsKey(element)) {
+            return;
+        }
+        if (size == capacity) {
+            ampliarMatriz(size + 1);
         }
         Node<E> v = new NodeImpl<>(element);
+        index.put(element, nodes.size());
         nodes.add(v);
+        adjacency = null;
         size++;
+        listeners.forEach((l) -> l.nodeAdded(element));
+    }
+
+    @Override
+    public synchronized void addNodes(Collection<E> elements) {
+        // reservamos de una vez el hueco de todos los elementos
+        if (size + elements.size() > capacity) {
+            ampliarMatriz(size + elements.size());
+        }
+        elements.forEach(this::addNode);
+    }
+
+    // método utilidad para ampliar la matriz hasta al menos 'required' nodos;
+    // la capacidad crece al menos un 50% para que añadir nodos uno a uno
+    // tenga coste amortizado
+    private void ampliarMatriz(int required) {
+        int aux = Math.max(required, Math.max(capacity + (capacity >> 1), 8));
+        if (flat != null) {
+            aux = Math.max(required, Math.min(aux, MAX_FLAT_CAPACITY));
+            double[] matrix = new double[checkedArea(aux)];
+            // copiamos cada fila en su nueva posición
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(flat, i * capacity, matrix, i * aux, size);
+            }
+            flat = matrix;
+        } else {
+            double[][] matrix = new double[aux][];
+            // reutilizamos las filas existentes, ampliadas, y creamos el resto
+            for (int i = 0; i < aux; i++) {
+                matrix[i] = i < size ? Arrays.copyOf(graph[i], aux) : new double[aux];
+            }
+            graph = matrix;
+        }
+        capacity = aux;
+    }
+
+    private static int checkedArea(int n) {
+        if (n > MAX_FLAT_CAPACITY) {
+            throw new IllegalStateException("La matriz plana admite como máximo "
+                    + MAX_FLAT_CAPACITY + " nodos");
+        }
+        return n * n;
     }
 
-    // método utilidad para ampliar la matriz
-    private void ampliarMatriz() {
-        double[][] aux = new double[size + 1][size + 1];
-        // creamos matriz auxiliar y copiamos el contenido 
-        // de la original en ella
-        for (int i = 0; i < graph.length; i++) {
-            System.arraycopy(graph[i], 0, aux[i], 0, graph[i].length);
+    private double get(int from, int to) {
+        if (from < 0 || to < 0 || from >= size || to >= size) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        return flat != null ? flat[from * capacity + to] : graph[from][to];
+    }
+
+    private void set(int from, int to, double weight) {
+        if (from < 0 || to < 0 || from >= size || to >= size) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        if (flat != null) {
+            flat[from * capacity + to] = weight;
+        } else {
+            graph[from][to] = weight;
         }
-        // actualizamos la referencia de la original
-        graph = aux;
     }
 
     @Override
-    public void connect(E from, E to, int weight) {
-        Node<E> vFrom = new NodeImpl(from);
-        Node<E> vTo = new NodeImpl(to);
-        int nFrom = nodes.indexOf(vFrom);
-        int nTo = nodes.indexOf(vTo);
-        graph[nFrom][nTo] = weight;
+    public synchronized void connect(E from, E to, int weight) {
+        int nFrom = indexOf(from);
+        int nTo = indexOf(to);
+        double previous = get(nFrom, nTo);
+        set(nFrom, nTo, weight);
+        adjacency = null;
+        if (previous != weight) {
+            listeners.forEach((l) -> l.connected(from, to, previous, weight));
+        }
+    }
+
+    /**
+     * Método que registra un observador de los cambios del grafo
+     *
+     * @param listener observador a avisar
+     */
+    public void addListener(GraphListener<E> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Método que da de baja un observador de los cambios del grafo
+     *
+     * @param listener observador registrado
+     */
+    public void removeListener(GraphListener<E> listener) {
+        listeners.remove(listener);
     }
 
     @Override
     public boolean contains(E vertex) {
-        return nodes.indexOf(vertex) >= 0;
+        return index.containsKey(vertex);
     }
 
     @Override
     public List<Node<E>> shortestPath(E from, E to) {
-        Node<E> vFrom = new NodeImpl(from);
-        Node<E> vTo = new NodeImpl(to);
-
-        int nFrom = nodes.indexOf(vFrom);
-        int nTo = nodes.indexOf(vTo);
+        int nFrom = indexOf(from);
+        int nTo = indexOf(to);
         if (nFrom < 0 || nTo < 0) {
             throw new NullPointerException();
         }
-        System.out.println("Calculando ruta desde " + from + " hasta " + to + "...");
-        if (hasSomeNeighbour(nFrom)) {
-            List<Node<E>> path = dijsktra(nodes.get(nFrom), nodes.get(nTo));
-            return path;
-        } else {
-            System.out.println("No es posible calcular la ruta.");
-            return null;
-        }
+        return dijsktra(nFrom, nTo);
+    }
+
+    private List<Node<E>> dijsktra(int from, int to) {
+        // la búsqueda trabaja sobre índices enteros y la adyacencia compacta,
+        // con un estado propio del hilo, sin tocar los nodos compartidos
+        CompressedAdjacency snapshot = adjacency();
+        DijkstraSearch search = search(snapshot.order());
+        search.run(snapshot, from, to);
+        // devolvemos la ruta encontrada, con nodos nuevos
+        return buildPath(search.previous, search.cost, to);
     }
 
-    private List<Node<E>> dijsktra(Node<E> from, Node<E> to) {
-
-        // creamos la cola de prioridad
-        PriorityQueue<Node<E>> q = new PriorityQueue<>();
-        nodes.stream().map((n) -> {
-            // a cada nodo le anulamos el previo
-            n.setPrevious(null);
-            return n;
-        }).map((n) -> {
-            // por defecto todos tienen distancia infinita
-            n.setCost(Integer.MAX_VALUE);
-            return n;
-        }).forEachOrdered((n) -> {
-            // ninguno se habrá visitado
-            n.setUnvisited();
-        });
-        // nuestro nodo inicio no tendrá coste a sí mismo
-        from.setCost(0);
-        // lo añadimos a la cola de prioridad
-        q.add(from);
-        // flag con el chivato de encontrado
-        boolean found = false;
-        // repetir mientras no encontrado y lista no vacía
-        while (!found && !q.isEmpty()) {
-            // 1 Pull el nodo A con el menor coste de la cola
-            Node<E> a = q.poll();
-            // 2. Si este nodo es el destino, parar. Tenemos una ruta
-            if (a.equals(to)) {
-                // cambiamos la flag de encontrado
-                found = true;
-            } else { // en caso contrario, sacar todos los vecinos de A
-                a.setVisited();
-                // obtengo el índice del nodo actual A
-                int indexA = nodes.indexOf(a);
-                // obtengo los vecinos de A y los llamo b
-                nodes.forEach((b) -> {
-                    // por cada nodo b vecino de a:
-                    // obtengo su índice
-                    int indexB = nodes.indexOf(b);
-                    // si la distancia en la matriz de adyacencia
-                    // es distinta a 0, es vecino
-                    // si la distancia además es menor que la que ya tiene
-                    // y si no ha sido visitado
-                    if (!b.isVisited() && graph[indexA][indexB] != 0
-                            && b.getCost() > a.getCost() + graph[indexA][indexB]) {
-                        // actualizo el coste
-                        b.setCost(a.getCost() + graph[indexA][indexB]);
-                        // marco a como previo a b
-                        b.setPrevious(a);
-                        // añado b a la cola
-                        q.add(b);
-                    }
-                });
+    @Override
+    CompressedAdjacency adjacency() {
+        // la adyacencia compacta se reconstruye solo tras cambios en el grafo
+        CompressedAdjacency a = adjacency;
+        if (a == null) {
+            synchronized (this) {
+                a = adjacency;
+                if (a == null) {
+                    a = flat != null
+                            ? CompressedAdjacency.of(flat, capacity, size)
+                            : CompressedAdjacency.of(graph, size);
+                    adjacency = a;
+                }
             }
         }
-        // creamos el listado para volcado
-        List<Node<E>> path = new ArrayList<>();
-        // almacenamos el recorrido
-        if (to.hasPrevious()) {
-            Node<E> n = to;
-            do {
-                path.add(n);
-                n = n.getPrevious();
-            } while (n != null);
-            // invertimos el orden
-            Collections.reverse(path);
-        }
-        // devolvemos la ruta encontrada
-        return path;
+        return a;
     }
 
-    private boolean hasSomeNeighbour(int n) {
-        boolean has = false;
-        int i = 0;
-        while (!has && i < size) {
-            if (graph[n][i] != 0) {
-                has = true;
+    /**
+     * Método que devuelve una copia inmutable del grafo en su estado actual.
+     * Los cambios posteriores en este grafo no afectan a la copia, que admite
+     * consultas concurrentes sin ningún bloqueo.
+     *
+     * @return grafo inmutable con los mismos vértices y conexiones
+     */
+    public synchronized GraphCompressedSparseRow<E> snapshot() {
+        List<E> elements = new ArrayList<>(nodes.size());
+        nodes.forEach((n) -> elements.add(n.getElement()));
+        return new GraphCompressedSparseRow<>(elements, new HashMap<>(index), adjacency());
+    }
+
+    /**
+     * Añade de una vez los vértices y las conexiones de una adyacencia
+     * compacta, sin pasar por addNode y connect para cada una. Si el grafo
+     * estaba vacío la propia adyacencia queda como instantánea y no hay que
+     * reconstruirla en la primera consulta.
+     *
+     * @param elements elementos de los vértices de la adyacencia, en orden
+     * @param loaded adyacencia entre esos vértices
+     */
+    synchronized void load(List<E> elements, CompressedAdjacency loaded) {
+        boolean empty = size == 0;
+        addNodes(elements);
+        int[] position = new int[elements.size()];
+        for (int v = 0; v < position.length; v++) {
+            position[v] = indexOf(elements.get(v));
+        }
+        for (int v = 0; v < position.length; v++) {
+            for (int e = loaded.begin(v); e < loaded.end(v); e++) {
+                set(position[v], position[loaded.target(e)], loaded.weight(e));
             }
-            i++;
         }
-        return has;
+        adjacency = empty && size == position.length ? loaded : null;
     }
 
     @Override
     protected double getWeight(E from, E to) {
-        Node<E> vFrom = new NodeImpl(from);
-        Node<E> vTo = new NodeImpl(to);
-        int nFrom = nodes.indexOf(vFrom);
-        int nTo = nodes.indexOf(vTo);
-        return graph[nFrom][nTo];
+        int nFrom = indexOf(from);
+        int nTo = indexOf(to);
+        return get(nFrom, nTo);
     }
 
     @Override
@@ -0,0 +1,445 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Análisis de un grafo sin tener en cuenta los pesos: niveles de recorrido en
+ * anchura, alcanzabilidad y componentes conexas. Trabaja con las posiciones
+ * enteras de los vértices y con conjuntos de bits, sin tocar los nodos, y
+ * reparte el trabajo entre los hilos de un {@link ForkJoinPool}.
+ * <p>
+ * El recorrido en anchura cambia de sentido según el tamaño de la frontera
+ * (Beamer et al.): mientras es pequeña cada vértice de la frontera visita sus
+ * sucesores, y cuando abarca muchas aristas cada vértice sin visitar busca
+ * entre sus predecesores uno de la frontera, lo que evita recorrer casi todas
+ * las aristas en los niveles centrales.
+ * <p>
+ * El análisis refleja el estado del grafo al crearlo. Los métodos pueden
+ * ejecutarse concurrentemente.
+ *
+ * @author Quini Roiz
+ * @param <E> Tipo de los elementos del grafo
+ */
+public class GraphAnalytics<E> {
+
+    // cambio a recorrido ascendente cuando las aristas de la frontera superan
+    // 1/ALPHA de las no exploradas, y vuelta cuando la frontera baja de
+    // 1/BETA de los vértices
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    // palabras de 64 vértices y vértices que procesa como mínimo cada tarea
+    private static final int WORD_GRAIN = 64;
+    private static final int VERTEX_GRAIN = 4096;
+
+    private final AbstractGraph<E> graph;
+    private final CompressedAdjacency adjacency;
+    private final ForkJoinPool pool;
+
+    /**
+     * Crea el análisis del grafo en su estado actual, sobre el pool común
+     *
+     * @param graph grafo de este paquete sobre el que trabajar
+     */
+    public GraphAnalytics(Graph<E> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea el análisis del grafo en su estado actual
+     *
+     * @param graph grafo de este paquete sobre el que trabajar
+     * @param pool pool en el que ejecutar los algoritmos paralelos
+     */
+    public GraphAnalytics(Graph<E> graph, ForkJoinPool pool) {
+        if (!(graph instanceof AbstractGraph)) {
+            throw new IllegalArgumentException("Implementación de grafo no soportada");
+        }
+        this.graph = (AbstractGraph<E>) graph;
+        this.adjacency = this.graph.adjacency();
+        this.pool = pool;
+    }
+
+    /**
+     * Método que devuelve el número de vértices analizados
+     *
+     * @return número de vértices
+     */
+    public int order() {
+        return adjacency.order();
+    }
+
+    /**
+     * Método que devuelve la posición de un elemento, que es la que se usa en
+     * los resultados del análisis
+     *
+     * @param element elemento del grafo
+     * @return posición del vértice o -1 si no existe
+     */
+    public int indexOf(E element) {
+        return graph.indexOf(element);
+    }
+
+    /**
+     * Método que devuelve el elemento de una posición
+     *
+     * @param vertex posición del vértice
+     * @return elemento del vértice
+     */
+    public E element(int vertex) {
+        return graph.nodes.get(vertex).getElement();
+    }
+
+    /**
+     * Método que calcula el nivel de cada vértice en un recorrido en anchura,
+     * es decir, el mínimo número de conexiones desde el origen
+     *
+     * @param source elemento origen
+     * @return nivel de cada vértice por posición, -1 si no es alcanzable
+     */
+    public int[] levels(E source) {
+        int[] level = new int[order()];
+        Arrays.fill(level, -1);
+        breadthFirst(vertex(source), level);
+        return level;
+    }
+
+    /**
+     * Método que calcula los vértices alcanzables desde un origen, incluido él
+     *
+     * @param source elemento origen
+     * @return conjunto de posiciones de los vértices alcanzables
+     */
+    public BitSet reachable(E source) {
+        AtomicLongArray visited = breadthFirst(vertex(source), null);
+        long[] words = new long[visited.length()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = visited.get(i);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Método que calcula las componentes débilmente conexas, las que quedan al
+     * ignorar el sentido de las conexiones, con una unión-búsqueda paralela
+     * sin bloqueos
+     *
+     * @return componente de cada vértice por posición, numeradas desde 0 en
+     * el orden de su primer vértice
+     */
+    public int[] weakComponents() {
+        int n = order();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parent.set(v, v);
+        }
+        pool.invoke(new RangeTask((from, to) -> {
+            for (int v = from; v < to; v++) {
+                for (int e = adjacency.begin(v); e < adjacency.end(v); e++) {
+                    union(parent, v, adjacency.target(e));
+                }
+            }
+            return 0;
+        }, 0, n, VERTEX_GRAIN));
+        // la raíz de cada árbol es su menor vértice, ya numerado al llegar a él
+        int[] component = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int root = find(parent, v);
+            component[v] = root == v ? count++ : component[root];
+        }
+        return component;
+    }
+
+    /**
+     * Método que calcula las componentes fuertemente conexas, en las que
+     * cualquier vértice alcanza a cualquier otro, con el algoritmo de Tarjan
+     * en versión iterativa
+     *
+     * @return componente de cada vértice por posición, numeradas desde 0 en
+     * el orden de su primer vértice
+     */
+    public int[] strongComponents() {
+        int n = order();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+        // pila de Tarjan, pila de llamadas y siguiente arista de cada vértice
+        int[] stack = new int[n];
+        int[] calls = new int[n];
+        int[] next = new int[n];
+        int visited = 0;
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (index[s] >= 0) {
+                continue;
+            }
+            int sp = 0;
+            int cp = 0;
+            index[s] = low[s] = visited++;
+            stack[sp++] = s;
+            calls[cp++] = s;
+            next[s] = adjacency.begin(s);
+            while (cp > 0) {
+                int v = calls[cp - 1];
+                if (next[v] < adjacency.end(v)) {
+                    int w = adjacency.target(next[v]++);
+                    if (index[w] < 0) {
+                        index[w] = low[w] = visited++;
+                        stack[sp++] = w;
+                        calls[cp++] = w;
+                        next[w] = adjacency.begin(w);
+                    } else if (component[w] < 0) {
+                        // w sigue en la pila de Tarjan
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    cp--;
+                    if (cp > 0) {
+                        int u = calls[cp - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            component[w] = count;
+                        } while (w != v);
+                        count++;
+                    }
+                }
+            }
+        }
+        // renumeramos en el orden del primer vértice de cada componente
+        int[] rename = new int[count];
+        Arrays.fill(rename, -1);
+        int renamed = 0;
+        for (int v = 0; v < n; v++) {
+            if (rename[component[v]] < 0) {
+                rename[component[v]] = renamed++;
+            }
+            component[v] = rename[component[v]];
+        }
+        return component;
+    }
+
+    private int vertex(E element) {
+        int v = graph.indexOf(element);
+        if (v < 0) {
+            throw new NullPointerException();
+        }
+        return v;
+    }
+
+    // recorrido en anchura desde 'source' que rellena 'level' (inicializado
+    // por el llamador, o null si solo interesan los visitados) y devuelve los
+    // vértices visitados
+    private AtomicLongArray breadthFirst(int source, int[] level) {
+        int n = order();
+        int words = (n + 63) >>> 6;
+        CompressedAdjacency reverse = adjacency.transpose();
+        AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray frontier = new AtomicLongArray(words);
+        if (level != null) {
+            level[source] = 0;
+        }
+        visited.set(source >>> 6, 1L << source);
+        frontier.set(source >>> 6, 1L << source);
+        long frontierVertices = 1;
+        long frontierEdges = degree(source);
+        long unexplored = adjacency.edges() - frontierEdges;
+        boolean bottomUp = false;
+        for (int depth = 1; frontierVertices > 0; depth++) {
+            if (!bottomUp && frontierEdges > unexplored / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierVertices < n / BETA) {
+                bottomUp = false;
+            }
+            AtomicLongArray current = frontier;
+            AtomicLongArray next = new AtomicLongArray(words);
+            int d = depth;
+            RangeBody step = bottomUp
+                    ? (from, to) -> bottomUpStep(reverse, current, next, visited, level, d, from, to)
+                    : (from, to) -> topDownStep(current, next, visited, level, d, from, to);
+            long found = pool.invoke(new RangeTask(step, 0, words, WORD_GRAIN));
+            // cada paso devuelve vértices encontrados << 32 | sus aristas
+            frontierVertices = found >>> 32;
+            frontierEdges = found & 0xffffffffL;
+            unexplored -= frontierEdges;
+            frontier = next;
+        }
+        return visited;
+    }
+
+    // cada vértice de la frontera en las palabras [from, to) reclama sus
+    // sucesores no visitados
+    private long topDownStep(AtomicLongArray frontier, AtomicLongArray next, AtomicLongArray visited,
+            int[] level, int depth, int from, int to) {
+        long found = 0;
+        for (int i = from; i < to; i++) {
+            long word = frontier.get(i);
+            while (word != 0) {
+                int u = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                for (int e = adjacency.begin(u); e < adjacency.end(u); e++) {
+                    int w = adjacency.target(e);
+                    if (claim(visited, w)) {
+                        if (level != null) {
+                            level[w] = depth;
+                        }
+                        setBit(next, w);
+                        found += (1L << 32) + degree(w);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // cada vértice sin visitar de las palabras [from, to) busca un predecesor
+    // en la frontera; las palabras son exclusivas de esta tarea
+    private long bottomUpStep(CompressedAdjacency reverse, AtomicLongArray frontier, AtomicLongArray next,
+            AtomicLongArray visited, int[] level, int depth, int from, int to) {
+        long found = 0;
+        int n = order();
+        for (int i = from; i < to; i++) {
+            long seen = visited.get(i);
+            long discovered = 0;
+            for (int v = i << 6, end = Math.min(v + 64, n); v < end; v++) {
+                if ((seen & (1L << v)) != 0) {
+                    continue;
+                }
+                for (int e = reverse.begin(v); e < reverse.end(v); e++) {
+                    int u = reverse.target(e);
+                    if ((frontier.get(u >>> 6) & (1L << u)) != 0) {
+                        if (level != null) {
+                            level[v] = depth;
+                        }
+                        discovered |= 1L << v;
+                        found += (1L << 32) + degree(v);
+                        break;
+                    }
+                }
+            }
+            if (discovered != 0) {
+                visited.set(i, seen | discovered);
+                next.set(i, discovered);
+            }
+        }
+        return found;
+    }
+
+    private int degree(int v) {
+        return adjacency.end(v) - adjacency.begin(v);
+    }
+
+    // marca el vértice como visitado y devuelve true si no lo estaba
+    private static boolean claim(AtomicLongArray bits, int v) {
+        int i = v >>> 6;
+        long bit = 1L << v;
+        long old;
+        do {
+            old = bits.get(i);
+            if ((old & bit) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(i, old, old | bit));
+        return true;
+    }
+
+    private static void setBit(AtomicLongArray bits, int v) {
+        int i = v >>> 6;
+        long bit = 1L << v;
+        long old;
+        do {
+            old = bits.get(i);
+        } while (!bits.compareAndSet(i, old, old | bit));
+    }
+
+    // une los árboles de a y b colgando la raíz mayor de la menor, de modo
+    // que la raíz de cada árbol es siempre su menor vértice
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) {
+                return;
+            }
+            if (a < b) {
+                int aux = a;
+                a = b;
+                b = aux;
+            }
+            if (parent.compareAndSet(a, a, b)) {
+                return;
+            }
+        }
+    }
+
+    // raíz del árbol de v, acortando el camino a la mitad por el camino
+    private static int find(AtomicIntegerArray parent, int v) {
+        while (true) {
+            int p = parent.get(v);
+            if (p == v) {
+                return v;
+            }
+            int grandparent = parent.get(p);
+            if (grandparent != p) {
+                parent.compareAndSet(v, p, grandparent);
+            }
+            v = grandparent;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeBody {
+
+        long run(int from, int to);
+    }
+
+    /**
+     * Tarea que divide un rango por la mitad hasta el tamaño mínimo y suma lo
+     * que devuelve el cuerpo en cada trozo
+     */
+    private static final class RangeTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RangeBody body;
+        private final int begin;
+        private final int end;
+        private final int grain;
+
+        RangeTask(RangeBody body, int begin, int end, int grain) {
+            this.body = body;
+            this.begin = begin;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected Long compute() {
+            if (end - begin <= grain) {
+                return body.run(begin, end);
+            }
+            int middle = (begin + end) >>> 1;
+            RangeTask left = new RangeTask(body, begin, middle, grain);
+            left.fork();
+            long right = new RangeTask(body, middle, end, grain).compute();
+            return right + left.join();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import structuredata.node.Node;
+import structuredata.node.NodeImpl;
+
+/**
+ * Implementación inmutable de la clase Grafo en formato CSR (compressed sparse
+ * row), pensada para grafos grandes y dispersos. La memoria ocupada es
+ * proporcional a vértices más aristas, en lugar de al cuadrado de los vértices
+ * como en la matriz de adyacencia.
+ * <p>
+ * El grafo se construye con {@link Builder}, que acumula vértices y aristas y
+ * al final los compacta en los arrays definitivos. Al ser inmutable admite
+ * consultas concurrentes desde varios hilos.
+ *
+ * @author Quini Roiz
+ * @param <E> Utilizaremos los tipos genéricos de datos para trabajar en esta
+ * implementación
+ */
+public class GraphCompressedSparseRow<E> extends AbstractGraph<E> {
+
+    private final CompressedAdjacency adjacency;
+
+    GraphCompressedSparseRow(List<E> elements, Map<E, Integer> index,
+            CompressedAdjacency adjacency) {
+        super();
+        nodes = new ArrayList<>(elements.size());
+        elements.forEach((e) -> nodes.add(new NodeImpl<>(e)));
+        this.index = index;
+        this.adjacency = adjacency;
+    }
+
+    /**
+     * Método que devuelve el número de vértices del grafo
+     *
+     * @return número de vértices
+     */
+    public int order() {
+        return adjacency.order();
+    }
+
+    /**
+     * Método que devuelve el número de aristas del grafo
+     *
+     * @return número de aristas
+     */
+    public int edges() {
+        return adjacency.edges();
+    }
+
+    @Override
+    public void addNode(E element) {
+        throw new UnsupportedOperationException("Grafo inmutable, utilice GraphCompressedSparseRow.Builder");
+    }
+
+    @Override
+    public void connect(E from, E to, int weight) {
+        throw new UnsupportedOperationException("Grafo inmutable, utilice GraphCompressedSparseRow.Builder");
+    }
+
+    @Override
+    public boolean contains(E element) {
+        return index.containsKey(element);
+    }
+
+    @Override
+    public List<Node<E>> shortestPath(E from, E to) {
+        int nFrom = indexOf(from);
+        int nTo = indexOf(to);
+        if (nFrom < 0 || nTo < 0) {
+            throw new NullPointerException();
+        }
+        DijkstraSearch search = search(order());
+        search.run(adjacency, nFrom, nTo);
+        return buildPath(search.previous, search.cost, nTo);
+    }
+
+    @Override
+    CompressedAdjacency adjacency() {
+        return adjacency;
+    }
+
+    @Override
+    protected double getWeight(E from, E to) {
+        return adjacency.weight(indexOf(from), indexOf(to));
+    }
+
+    @Override
+    public String toString() {
+        String res = "";
+        res += "----------------------------\n";
+        res += "NODOS DISPONIBLES: \n";
+        res += "----------------------------\n";
+        res = nodes.stream().map((n) -> n + "\n").reduce(res, String::concat);
+        res += "----------------------------\n";
+        res += "----------------------------\n";
+        return res;
+    }
+
+    /**
+     * Constructor del grafo CSR. Acumula los vértices y las aristas en arrays
+     * primitivos y, al llamar a {@link #build()}, los ordena y compacta en el
+     * grafo definitivo. Si una misma arista se conecta varias veces prevalece
+     * el último peso, y un peso 0 elimina la conexión.
+     *
+     * @param <E> tipo de los elementos del grafo
+     */
+    public static class Builder<E> {
+
+        private List<E> elements;
+        private Map<E, Integer> index;
+        private int[] from;
+        private int[] to;
+        private double[] weights;
+        private int edges;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int expectedEdges) {
+            elements = new ArrayList<>();
+            index = new HashMap<>();
+            int capacity = Math.max(expectedEdges, 1);
+            from = new int[capacity];
+            to = new int[capacity];
+            weights = new double[capacity];
+        }
+
+        /**
+         * Añade un elemento al grafo, si no existía ya
+         *
+         * @param element elemento a añadir
+         * @return el propio constructor
+         */
+        public Builder<E> addNode(E element) {
+            vertex(element);
+            return this;
+        }
+
+        /**
+         * Añade una conexión entre dos elementos, añadiéndolos al grafo si no
+         * existían
+         *
+         * @param from elemento origen
+         * @param to elemento destino
+         * @param weight peso de la conexión
+         * @return el propio constructor
+         */
+        public Builder<E> connect(E from, E to, double weight) {
+            int nFrom = vertex(from);
+            int nTo = vertex(to);
+            if (edges == this.from.length) {
+                int capacity = edges + (edges >> 1) + 1;
+                this.from = Arrays.copyOf(this.from, capacity);
+                this.to = Arrays.copyOf(this.to, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            this.from[edges] = nFrom;
+            this.to[edges] = nTo;
+            weights[edges] = weight;
+            edges++;
+            return this;
+        }
+
+        private int vertex(E element) {
+            Integer i = index.get(element);
+            if (i == null) {
+                i = elements.size();
+                index.put(element, i);
+                elements.add(element);
+            }
+            return i;
+        }
+
+        /**
+         * Compacta lo acumulado en un grafo CSR. El constructor queda vacío
+         * y puede reutilizarse para otro grafo.
+         *
+         * @return grafo construido
+         */
+        public GraphCompressedSparseRow<E> build() {
+            CompressedAdjacency adjacency = CompressedAdjacency.of(elements.size(), from, to, weights, edges);
+            GraphCompressedSparseRow<E> graph = new GraphCompressedSparseRow<>(elements, index, adjacency);
+            elements = new ArrayList<>();
+            index = new HashMap<>();
+            edges = 0;
+            return graph;
+        }
+    }
+}
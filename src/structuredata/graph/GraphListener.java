@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+/**
+ * Observador de los cambios de un grafo modificable. Se avisa desde el hilo
+ * que hace el cambio y con el grafo bloqueado, por lo que el aviso debe ser
+ * breve y no puede esperar a otros hilos que usen el grafo.
+ *
+ * @author Quini Roiz
+ * @param <E> tipo de los elementos del grafo
+ */
+public interface GraphListener<E> {
+
+    /**
+     * Método que se llama al añadir un vértice nuevo al grafo
+     *
+     * @param element elemento añadido
+     */
+    default void nodeAdded(E element) {
+    }
+
+    /**
+     * Método que se llama al cambiar el peso de una conexión. Un peso 0
+     * significa que no hay conexión, así que también avisa de conexiones
+     * nuevas y eliminadas.
+     *
+     * @param from elemento origen
+     * @param to elemento destino
+     * @param previous peso anterior
+     * @param weight peso nuevo
+     */
+    void connected(E from, E to, double previous, double weight);
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import structuredata.node.Node;
+import structuredata.node.NodeImpl;
+
+/**
+ * Implementación inmutable de la clase Grafo cuya adyacencia, en formato CSR,
+ * está en un fichero proyectado en memoria en lugar de en el montículo de
+ * Java. Permite trabajar con grafos cuyas aristas no caben en el montículo: el
+ * sistema operativo carga las páginas según se recorren y las comparte entre
+ * todos los procesos que abren el mismo fichero.
+ * <p>
+ * El grafo se guarda una vez con {@link #create} y se abre después con
+ * {@link #open} sin deserializar las aristas. Solo la tabla de vértices se lee
+ * al montículo, ya que hace falta para traducir elementos a posiciones. El
+ * fichero guarda también la adyacencia traspuesta, para las búsquedas
+ * bidireccionales.
+ * <p>
+ * Formato del fichero (big-endian): cabecera de 32 bytes con la marca
+ * "SDGRAPHM", la versión, el número de vértices, el número de aristas, un
+ * entero reservado y la posición de la tabla de vértices; adyacencia directa
+ * y traspuesta (inicios de fila, destinos y pesos alineados a 8 bytes); y la
+ * tabla de vértices codificada con un {@link ElementCodec}.
+ *
+ * @author Quini Roiz
+ * @param <E> Utilizaremos los tipos genéricos de datos para trabajar en esta
+ * implementación
+ */
+public class GraphMemoryMapped<E> extends AbstractGraph<E> {
+
+    private static final byte[] MAGIC = "SDGRAPHM".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+
+    private final CompressedAdjacency adjacency;
+
+    private GraphMemoryMapped(List<E> elements, CompressedAdjacency adjacency) {
+        super();
+        nodes = new ArrayList<>(elements.size());
+        index = new HashMap<>(elements.size() * 4 / 3 + 1);
+        for (E e : elements) {
+            index.put(e, nodes.size());
+            nodes.add(new NodeImpl<>(e));
+        }
+        this.adjacency = adjacency;
+    }
+
+    /**
+     * Guarda un grafo de este paquete en un fichero y lo abre proyectado en
+     * memoria
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param file fichero destino, se sobrescribe si existe
+     * @param graph grafo a guardar, en su estado actual
+     * @param codec codificación de los elementos
+     * @return grafo proyectado sobre el fichero
+     * @throws IOException si falla la escritura o la proyección
+     */
+    public static <E> GraphMemoryMapped<E> create(Path file, Graph<E> graph, ElementCodec<E> codec)
+            throws IOException {
+        if (!(graph instanceof AbstractGraph)) {
+            throw new IllegalArgumentException("Implementación de grafo no soportada");
+        }
+        AbstractGraph<E> source = (AbstractGraph<E>) graph;
+        CompressedAdjacency forward = source.adjacency();
+        int n = forward.order();
+        int m = forward.edges();
+        long reversePosition = MappedAdjacency.end(HEADER, n, m);
+        long verticesPosition = MappedAdjacency.end(reversePosition, n, m);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeInt(0);
+            out.writeLong(verticesPosition);
+            write(out, forward, HEADER);
+            write(out, forward.transpose(), reversePosition);
+            for (int i = 0; i < n; i++) {
+                codec.write(source.nodes.get(i).getElement(), out);
+            }
+        }
+        return open(file, codec);
+    }
+
+    // escribe los arrays de una adyacencia que empieza en 'position'
+    private static void write(DataOutputStream out, CompressedAdjacency adjacency, long position)
+            throws IOException {
+        int n = adjacency.order();
+        int m = adjacency.edges();
+        for (int v = 0; v < n; v++) {
+            out.writeInt(adjacency.begin(v));
+        }
+        out.writeInt(m);
+        for (int e = 0; e < m; e++) {
+            out.writeInt(adjacency.target(e));
+        }
+        long written = position + 4L * (n + 1L) + 4L * m;
+        for (long p = written; p < MappedAdjacency.align(written); p++) {
+            out.writeByte(0);
+        }
+        for (int e = 0; e < m; e++) {
+            out.writeDouble(adjacency.weight(e));
+        }
+    }
+
+    /**
+     * Abre un grafo guardado con {@link #create}. Las aristas no se leen: se
+     * proyecta el fichero en memoria y se accede a ellas bajo demanda. La
+     * proyección sigue siendo válida aunque se borre o mueva el fichero.
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param file fichero del grafo
+     * @param codec codificación de los elementos, la misma que al guardarlo
+     * @return grafo proyectado sobre el fichero
+     * @throws IOException si el fichero no es válido o falla la lectura
+     */
+    public static <E> GraphMemoryMapped<E> open(Path file, ElementCodec<E> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            ((Buffer) header).flip();
+            byte[] magic = new byte[MAGIC.length];
+            if (header.remaining() == HEADER) {
+                header.get(magic);
+            }
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("El fichero no contiene un grafo: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de fichero no soportada: " + version);
+            }
+            int n = header.getInt();
+            int m = header.getInt();
+            header.getInt();
+            long verticesPosition = header.getLong();
+            long reversePosition = MappedAdjacency.end(HEADER, n, m);
+            if (n < 0 || m < 0 || verticesPosition != MappedAdjacency.end(reversePosition, n, m)
+                    || channel.size() < verticesPosition) {
+                throw new IOException("Cabecera de grafo corrupta: " + file);
+            }
+            MappedAdjacency forward = new MappedAdjacency(channel, HEADER, n, m);
+            MappedAdjacency reverse = new MappedAdjacency(channel, reversePosition, n, m);
+            CompressedAdjacency.link(forward, reverse);
+            // el flujo no se cierra para no cerrar el canal dos veces
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(verticesPosition)), 1 << 16));
+            List<E> elements = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                elements.add(codec.read(in));
+            }
+            return new GraphMemoryMapped<>(elements, forward);
+        }
+    }
+
+    /**
+     * Método que devuelve el número de vértices del grafo
+     *
+     * @return número de vértices
+     */
+    public int order() {
+        return adjacency.order();
+    }
+
+    /**
+     * Método que devuelve el número de aristas del grafo
+     *
+     * @return número de aristas
+     */
+    public int edges() {
+        return adjacency.edges();
+    }
+
+    @Override
+    public void addNode(E element) {
+        throw new UnsupportedOperationException("Grafo inmutable, utilice GraphMemoryMapped.create");
+    }
+
+    @Override
+    public void connect(E from, E to, int weight) {
+        throw new UnsupportedOperationException("Grafo inmutable, utilice GraphMemoryMapped.create");
+    }
+
+    @Override
+    public boolean contains(E element) {
+        return index.containsKey(element);
+    }
+
+    @Override
+    public List<Node<E>> shortestPath(E from, E to) {
+        int nFrom = indexOf(from);
+        int nTo = indexOf(to);
+        if (nFrom < 0 || nTo < 0) {
+            throw new NullPointerException();
+        }
+        DijkstraSearch search = search(order());
+        search.run(adjacency, nFrom, nTo);
+        return buildPath(search.previous, search.cost, nTo);
+    }
+
+    @Override
+    CompressedAdjacency adjacency() {
+        return adjacency;
+    }
+
+    @Override
+    protected double getWeight(E from, E to) {
+        return adjacency.weight(indexOf(from), indexOf(to));
+    }
+
+    @Override
+    public String toString() {
+        String res = "";
+        res += "----------------------------\n";
+        res += "NODOS DISPONIBLES: \n";
+        res += "----------------------------\n";
+        res = nodes.stream().map((n) -> n + "\n").reduce(res, String::concat);
+        res += "----------------------------\n";
+        res += "----------------------------\n";
+        return res;
+    }
+}
@@ -0,0 +1,444 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binario para guardar y cargar grafos de este paquete sin tener que
+ * reconstruirlos con addNode y connect. Se escribe y se lee en streaming sobre
+ * canales NIO con un búfer fijo, por lo que no se necesita memoria adicional
+ * proporcional al tamaño del fichero.
+ * <p>
+ * El fichero (big-endian) se divide en secciones, cada una seguida de su
+ * suma de control CRC32:
+ * <ol>
+ * <li>cabecera: marca "SDGRAPHS", versión, número de vértices n y número de
+ * aristas m</li>
+ * <li>tabla de vértices, codificada con un {@link ElementCodec}</li>
+ * <li>inicio de las aristas de cada vértice, n + 1 enteros</li>
+ * <li>destino de cada arista, m enteros</li>
+ * <li>peso de cada arista, m doubles</li>
+ * </ol>
+ *
+ * @author Quini Roiz
+ */
+public final class GraphSnapshot {
+
+    private static final byte[] MAGIC = "SDGRAPHS".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int BUFFER = 1 << 16;
+
+    private GraphSnapshot() {
+    }
+
+    /**
+     * Guarda un grafo de este paquete en un fichero
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param graph grafo a guardar, en su estado actual
+     * @param file fichero destino, se sobrescribe si existe
+     * @param codec codificación de los elementos
+     * @throws IOException si falla la escritura
+     */
+    public static <E> void write(Graph<E> graph, Path file, ElementCodec<E> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(graph, channel, codec);
+        }
+    }
+
+    /**
+     * Escribe un grafo de este paquete en un canal, que no se cierra
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param graph grafo a guardar, en su estado actual
+     * @param channel canal de salida
+     * @param codec codificación de los elementos
+     * @throws IOException si falla la escritura
+     */
+    public static <E> void write(Graph<E> graph, WritableByteChannel channel, ElementCodec<E> codec)
+            throws IOException {
+        if (!(graph instanceof AbstractGraph)) {
+            throw new IllegalArgumentException("Implementación de grafo no soportada");
+        }
+        AbstractGraph<E> source = (AbstractGraph<E>) graph;
+        List<E> elements;
+        CompressedAdjacency adjacency;
+        // los grafos modificables se bloquean a sí mismos al cambiar
+        synchronized (source) {
+            adjacency = source.adjacency();
+            elements = new ArrayList<>(adjacency.order());
+            for (int v = 0; v < adjacency.order(); v++) {
+                elements.add(source.nodes.get(v).getElement());
+            }
+        }
+        int n = adjacency.order();
+        int m = adjacency.edges();
+        Output out = new Output(channel);
+        out.write(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(n);
+        out.putInt(m);
+        out.endSection();
+        DataOutputStream data = new DataOutputStream(out);
+        for (E element : elements) {
+            codec.write(element, data);
+        }
+        out.endSection();
+        for (int v = 0; v < n; v++) {
+            out.putInt(adjacency.begin(v));
+        }
+        out.putInt(m);
+        out.endSection();
+        for (int e = 0; e < m; e++) {
+            out.putInt(adjacency.target(e));
+        }
+        out.endSection();
+        for (int e = 0; e < m; e++) {
+            out.putDouble(adjacency.weight(e));
+        }
+        out.endSection();
+        out.flush();
+    }
+
+    /**
+     * Carga un grafo guardado como matriz de adyacencia
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param file fichero del grafo
+     * @param codec codificación de los elementos, la misma que al guardarlo
+     * @return grafo cargado
+     * @throws IOException si el fichero no es válido o falla la lectura
+     */
+    public static <E> GraphAdyacencyMatrix<E> readMatrix(Path file, ElementCodec<E> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readMatrix(channel, codec);
+        }
+    }
+
+    /**
+     * Lee de un canal un grafo como matriz de adyacencia. El canal no se
+     * cierra, pero puede quedar leído más allá del final del grafo.
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param channel canal de entrada
+     * @param codec codificación de los elementos, la misma que al guardarlo
+     * @return grafo cargado
+     * @throws IOException si los datos no son válidos o falla la lectura
+     */
+    public static <E> GraphAdyacencyMatrix<E> readMatrix(ReadableByteChannel channel, ElementCodec<E> codec)
+            throws IOException {
+        Contents<E> contents = read(channel, codec);
+        GraphAdyacencyMatrix<E> graph = new GraphAdyacencyMatrix<>(contents.elements.size());
+        graph.load(contents.elements, contents.adjacency);
+        return graph;
+    }
+
+    /**
+     * Carga un grafo guardado como grafo CSR inmutable
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param file fichero del grafo
+     * @param codec codificación de los elementos, la misma que al guardarlo
+     * @return grafo cargado
+     * @throws IOException si el fichero no es válido o falla la lectura
+     */
+    public static <E> GraphCompressedSparseRow<E> readCompressedSparseRow(Path file, ElementCodec<E> codec)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readCompressedSparseRow(channel, codec);
+        }
+    }
+
+    /**
+     * Lee de un canal un grafo como grafo CSR inmutable. El canal no se
+     * cierra, pero puede quedar leído más allá del final del grafo.
+     *
+     * @param <E> tipo de los elementos del grafo
+     * @param channel canal de entrada
+     * @param codec codificación de los elementos, la misma que al guardarlo
+     * @return grafo cargado
+     * @throws IOException si los datos no son válidos o falla la lectura
+     */
+    public static <E> GraphCompressedSparseRow<E> readCompressedSparseRow(ReadableByteChannel channel,
+            ElementCodec<E> codec) throws IOException {
+        Contents<E> contents = read(channel, codec);
+        return new GraphCompressedSparseRow<>(contents.elements, contents.index, contents.adjacency);
+    }
+
+    private static <E> Contents<E> read(ReadableByteChannel channel, ElementCodec<E> codec) throws IOException {
+        Input in = new Input(channel);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Los datos no contienen un grafo");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Versión de grafo no soportada: " + version);
+        }
+        int n = in.getInt();
+        int m = in.getInt();
+        in.endSection("cabecera");
+        if (n < 0 || m < 0) {
+            throw new IOException("Cabecera de grafo corrupta");
+        }
+        List<E> elements = new ArrayList<>(n);
+        Map<E, Integer> index = new HashMap<>(n * 4 / 3 + 1);
+        DataInputStream data = new DataInputStream(in);
+        for (int v = 0; v < n; v++) {
+            E element = codec.read(data);
+            if (index.put(element, v) != null) {
+                throw new IOException("Vértice repetido: " + element);
+            }
+            elements.add(element);
+        }
+        in.endSection("vértices");
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v <= n; v++) {
+            offsets[v] = in.getInt();
+        }
+        in.endSection("inicios de fila");
+        int[] targets = new int[m];
+        for (int e = 0; e < m; e++) {
+            targets[e] = in.getInt();
+        }
+        in.endSection("destinos");
+        double[] weights = new double[m];
+        for (int e = 0; e < m; e++) {
+            weights[e] = in.getDouble();
+        }
+        in.endSection("pesos");
+        checkRows(n, offsets, targets);
+        return new Contents<>(elements, index, CompressedAdjacency.of(offsets, targets, weights));
+    }
+
+    // comprueba que las filas sean válidas y estén ordenadas por destino
+    private static void checkRows(int n, int[] offsets, int[] targets) throws IOException {
+        if (offsets[0] != 0 || offsets[n] != targets.length) {
+            throw new IOException("Inicios de fila corruptos");
+        }
+        for (int v = 0; v < n; v++) {
+            if (offsets[v] > offsets[v + 1]) {
+                throw new IOException("Inicios de fila corruptos");
+            }
+            int last = -1;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (targets[e] <= last || targets[e] >= n) {
+                    throw new IOException("Destinos corruptos en el vértice " + v);
+                }
+                last = targets[e];
+            }
+        }
+    }
+
+    private static final class Contents<E> {
+
+        private final List<E> elements;
+        private final Map<E, Integer> index;
+        private final CompressedAdjacency adjacency;
+
+        Contents(List<E> elements, Map<E, Integer> index, CompressedAdjacency adjacency) {
+            this.elements = elements;
+            this.index = index;
+            this.adjacency = adjacency;
+        }
+    }
+
+    /**
+     * Salida con búfer sobre un canal que calcula la suma de control de cada
+     * sección según se escribe
+     */
+    private static final class Output extends OutputStream {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+        private final CRC32 crc = new CRC32();
+        // bytes del búfer ya incluidos en la suma de control
+        private int checked;
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensure(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                ensure(1);
+                int k = Math.min(len, buffer.remaining());
+                buffer.put(b, off, k);
+                off += k;
+                len -= k;
+            }
+        }
+
+        /**
+         * Cierra la sección actual escribiendo su suma de control, que no
+         * forma parte de la siguiente
+         *
+         * @throws IOException si falla la escritura
+         */
+        void endSection() throws IOException {
+            update();
+            ensure(4);
+            buffer.putInt((int) crc.getValue());
+            checked = buffer.position();
+            crc.reset();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            update();
+            ((Buffer) buffer).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            ((Buffer) buffer).clear();
+            checked = 0;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void update() {
+            ByteBuffer pending = buffer.duplicate();
+            ((Buffer) pending).limit(buffer.position()).position(checked);
+            crc.update(pending);
+            checked = buffer.position();
+        }
+    }
+
+    /**
+     * Entrada con búfer sobre un canal que calcula la suma de control de cada
+     * sección según se lee
+     */
+    private static final class Input extends InputStream {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+        private final CRC32 crc = new CRC32();
+        // bytes del búfer ya incluidos en la suma de control
+        private int checked;
+
+        Input(ReadableByteChannel channel) {
+            this.channel = channel;
+            ((Buffer) buffer).limit(0);
+        }
+
+        int getInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        double getDouble() throws IOException {
+            require(8);
+            return buffer.getDouble();
+        }
+
+        void readFully(byte[] b) throws IOException {
+            require(b.length);
+            buffer.get(b);
+        }
+
+        @Override
+        public int read() throws IOException {
+            require(1);
+            return buffer.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            require(1);
+            int k = Math.min(len, buffer.remaining());
+            buffer.get(b, off, k);
+            return k;
+        }
+
+        /**
+         * Cierra la sección actual comprobando su suma de control
+         *
+         * @param name nombre de la sección, para el mensaje de error
+         * @throws IOException si la suma de control no coincide
+         */
+        void endSection(String name) throws IOException {
+            update();
+            require(4);
+            int expected = buffer.getInt();
+            checked = buffer.position();
+            if (expected != (int) crc.getValue()) {
+                throw new IOException("Suma de control incorrecta en la sección de " + name);
+            }
+            crc.reset();
+        }
+
+        // garantiza que haya al menos 'bytes' bytes pendientes en el búfer
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            update();
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Fin inesperado de los datos del grafo");
+                }
+            }
+            ((Buffer) buffer).flip();
+            checked = 0;
+        }
+
+        private void update() {
+            ByteBuffer consumed = buffer.duplicate();
+            ((Buffer) consumed).limit(buffer.position()).position(checked);
+            crc.update(consumed);
+            checked = buffer.position();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+/**
+ * Interfaz de una heurística para la búsqueda A*, que estima el coste que
+ * queda desde un nodo hasta el destino. Debe ser admisible, es decir, no
+ * sobreestimar nunca el coste real.
+ *
+ * @author Quini Roiz
+ * @param <E> Tipo de los elementos del grafo
+ */
+@FunctionalInterface
+public interface Heuristic<E> {
+
+    /**
+     * Método que estima el coste mínimo entre dos elementos del grafo
+     *
+     * @param from elemento desde el que se estima
+     * @param to elemento destino
+     * @return estimación del coste, no mayor que el coste real
+     */
+    double estimate(E from, E to);
+}
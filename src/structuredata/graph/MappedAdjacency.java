@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.graph;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Adyacencia compacta cuyos arrays están en un fichero proyectado en memoria,
+ * fuera del montículo de Java. Las páginas las carga el sistema operativo al
+ * acceder a ellas y se comparten entre todos los procesos que abran el mismo
+ * fichero.
+ * <p>
+ * Cada proyección está limitada a 2 GB, así que los arrays se reparten en
+ * segmentos de 2^27 elementos y cada acceso elige primero el segmento.
+ *
+ * @author Quini Roiz
+ */
+final class MappedAdjacency extends CompressedAdjacency {
+
+    private static final int SHIFT = 27;
+    private static final int MASK = (1 << SHIFT) - 1;
+
+    private final int order;
+    private final int edges;
+    private final IntBuffer[] offsets;
+    private final IntBuffer[] targets;
+    private final DoubleBuffer[] weights;
+
+    /**
+     * Proyecta en memoria una adyacencia guardada en un fichero
+     *
+     * @param channel canal del fichero, abierto para lectura
+     * @param position posición de la tabla de inicios de fila
+     * @param n número de vértices
+     * @param m número de aristas
+     * @throws IOException si falla la proyección
+     */
+    MappedAdjacency(FileChannel channel, long position, int n, int m) throws IOException {
+        order = n;
+        edges = m;
+        offsets = mapInts(channel, position, n + 1L);
+        position += 4L * (n + 1L);
+        targets = mapInts(channel, position, m);
+        position = align(position + 4L * m);
+        weights = mapDoubles(channel, position, m);
+    }
+
+    /**
+     * Método que devuelve los bytes que ocupa en el fichero una adyacencia
+     * guardada a partir de una posición dada, incluido el relleno de
+     * alineación de los pesos
+     *
+     * @param position posición de inicio
+     * @param n número de vértices
+     * @param m número de aristas
+     * @return posición siguiente al final de la adyacencia
+     */
+    static long end(long position, int n, int m) {
+        return align(position + 4L * (n + 1L) + 4L * m) + 8L * m;
+    }
+
+    // redondea al siguiente múltiplo de 8, para alinear los doubles
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static IntBuffer[] mapInts(FileChannel channel, long position, long count) throws IOException {
+        IntBuffer[] segments = new IntBuffer[segments(count)];
+        for (int i = 0; i < segments.length; i++) {
+            long size = Math.min(count - ((long) i << SHIFT), 1L << SHIFT);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + ((long) i << SHIFT) * 4, size * 4)
+                    .order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+        }
+        return segments;
+    }
+
+    private static DoubleBuffer[] mapDoubles(FileChannel channel, long position, long count) throws IOException {
+        DoubleBuffer[] segments = new DoubleBuffer[segments(count)];
+        for (int i = 0; i < segments.length; i++) {
+            long size = Math.min(count - ((long) i << SHIFT), 1L << SHIFT);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + ((long) i << SHIFT) * 8, size * 8)
+                    .order(ByteOrder.BIG_ENDIAN).asDoubleBuffer();
+        }
+        return segments;
+    }
+
+    private static int segments(long count) {
+        return (int) ((count + MASK) >>> SHIFT);
+    }
+
+    @Override
+    int order() {
+        return order;
+    }
+
+    @Override
+    int edges() {
+        return edges;
+    }
+
+    @Override
+    int begin(int v) {
+        return offsets[v >>> SHIFT].get(v & MASK);
+    }
+
+    @Override
+    int end(int v) {
+        return begin(v + 1);
+    }
+
+    @Override
+    int target(int e) {
+        return targets[e >>> SHIFT].get(e & MASK);
+    }
+
+    @Override
+    double weight(int e) {
+        return weights[e >>> SHIFT].get(e & MASK);
+    }
+}
@@ -1,9 +1,345 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
 package structuredata.list;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class ArrayList<E> {
+/**
+ * Clase que implementa una lista sobre un array que crece al llenarse. El
+ * acceso por posición es O(1) y añadir al final O(1) amortizado, ya que el
+ * array crece a la vez la mitad de su tamaño.
+ * <p>
+ * El spliterator divide el array por la mitad, por lo que los streams
+ * paralelos reparten la lista entre hilos sin copiarla. La lista no debe
+ * modificarse mientras se recorre.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class ArrayList<E> implements Iterable<E>, RandomAccess {
 
-   
-   
-    
+    // mayor tamaño de array que admite la máquina virtual
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private E[] elements;
+    private int size;
+
+    public ArrayList() {
+        this(10);
+    }
+
+    /**
+     * Constructor de una lista vacía
+     *
+     * @param capacity capacidad inicial del array
+     */
+    public ArrayList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacidad no válida: " + capacity);
+        }
+        E[] a = (E[]) new Object[capacity];
+        elements = a;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Método que devuelve el elemento de una posición
+     *
+     * @param index posición, entre 0 y size - 1
+     * @return elemento de la posición
+     */
+    public E get(int index) {
+        checkIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * Método que sustituye el elemento de una posición
+     *
+     * @param index posición, entre 0 y size - 1
+     * @param e nuevo elemento
+     * @return elemento que había en la posición
+     */
+    public E set(int index, E e) {
+        checkIndex(index, size);
+        E old = elements[index];
+        elements[index] = e;
+        return old;
+    }
+
+    /**
+     * Método que añade un elemento al final de la lista
+     *
+     * @param e elemento a añadir
+     */
+    public void add(E e) {
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        elements[size++] = e;
+    }
+
+    /**
+     * Método que inserta un elemento en una posición, desplazando los
+     * siguientes
+     *
+     * @param index posición, entre 0 y size
+     * @param e elemento a insertar
+     */
+    public void add(int index, E e) {
+        checkIndex(index, size + 1);
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = e;
+        size++;
+    }
+
+    /**
+     * Método que añade al final todos los elementos de un array con una sola
+     * copia
+     *
+     * @param items elementos a añadir
+     */
+    public void addAll(E[] items) {
+        ensureCapacity((long) size + items.length);
+        System.arraycopy(items, 0, elements, size, items.length);
+        size += items.length;
+    }
+
+    /**
+     * Método que añade al final todos los elementos de una colección, en el
+     * orden de su iterador
+     *
+     * @param items elementos a añadir
+     */
+    public void addAll(Collection<? extends E> items) {
+        E[] a = (E[]) items.toArray();
+        addAll(a);
+    }
+
+    /**
+     * Método que borra el elemento de una posición, desplazando los
+     * siguientes
+     *
+     * @param index posición, entre 0 y size - 1
+     * @return elemento borrado
+     */
+    public E removeAt(int index) {
+        checkIndex(index, size);
+        E old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        return old;
+    }
+
+    /**
+     * Método que borra los elementos que cumplen una condición en una sola
+     * pasada, compactando los que quedan
+     *
+     * @param filter condición de los elementos a borrar
+     * @return true si se ha borrado alguno
+     */
+    public boolean removeIf(Predicate<? super E> filter) {
+        int kept = 0;
+        int i = 0;
+        try {
+            for (; i < size; i++) {
+                E e = elements[i];
+                if (!filter.test(e)) {
+                    elements[kept++] = e;
+                }
+            }
+        } finally {
+            // si la condición falla se conservan los que no se han evaluado
+            System.arraycopy(elements, i, elements, kept, size - i);
+            int end = kept + size - i;
+            Arrays.fill(elements, end, size, null);
+            size = end;
+        }
+        return kept < i;
+    }
+
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Método que devuelve la primera posición de un elemento
+     *
+     * @param e elemento a buscar
+     * @return posición o -1 si no está
+     */
+    public int indexOf(E e) {
+        for (int i = 0; i < size; i++) {
+            if (e == null ? elements[i] == null : e.equals(elements[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Método que buscará un elemento en la lista
+     *
+     * @param e elemento a buscar en la lista
+     * @return booleano con el resultado de la comprobación
+     */
+    public boolean search(E e) {
+        return indexOf(e) >= 0;
+    }
+
+    public Object[] toArray() {
+        return Arrays.copyOf(elements, size, Object[].class);
+    }
+
+    /**
+     * Método que copia un tramo de la lista a un array
+     *
+     * @param from primera posición, incluida
+     * @param to última posición, excluida
+     * @return array con los elementos del tramo
+     */
+    public Object[] toArray(int from, int to) {
+        checkRange(from, to);
+        return Arrays.copyOfRange(elements, from, to, Object[].class);
+    }
+
+    /**
+     * Método que copia un tramo de la lista a una lista nueva
+     *
+     * @param from primera posición, incluida
+     * @param to última posición, excluida
+     * @return lista con los elementos del tramo
+     */
+    public ArrayList<E> copyOfRange(int from, int to) {
+        checkRange(from, to);
+        ArrayList<E> copy = new ArrayList<>(to - from);
+        System.arraycopy(elements, from, copy.elements, 0, to - from);
+        copy.size = to - from;
+        return copy;
+    }
+
+    /**
+     * Método que ordena la lista sobre su propio array. La ordenación es
+     * estable.
+     *
+     * @param comparator orden de los elementos, null para su orden natural
+     */
+    public void sort(Comparator<? super E> comparator) {
+        Arrays.sort(elements, 0, size, comparator);
+    }
+
+    /**
+     * Método que asegura que caben los elementos indicados sin ampliar el
+     * array
+     *
+     * @param capacity número de elementos que deben caber
+     */
+    public void ensureCapacity(long capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("Lista demasiado grande");
+        }
+        if (capacity > elements.length) {
+            long grown = elements.length + (elements.length >> 1);
+            elements = Arrays.copyOf(elements, (int) Math.min(Math.max(grown, capacity), MAX_CAPACITY));
+        }
+    }
+
+    /**
+     * Método que reduce el array al tamaño de la lista
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = Arrays.copyOf(elements, size);
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public E next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return elements[next++];
+            }
+        };
+    }
+
+    /**
+     * Método que devuelve un spliterator sobre los elementos actuales, que se
+     * divide por la mitad del tramo que le queda
+     *
+     * @return spliterator ordenado y con tamaño conocido
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(elements, 0, size, Spliterator.ORDERED);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Posición: " + index + ", tamaño: " + size);
+        }
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Tramo: [" + from + ", " + to + "), tamaño: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "No hay datos que mostrar.";
+        }
+        StringBuilder res = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            res.append(elements[i]).append(" | ");
+        }
+        return res.toString();
+    }
 }
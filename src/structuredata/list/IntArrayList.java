@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.list;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lista de valores int sobre un array de primitivos que crece al llenarse,
+ * equivalente a {@link ArrayList} sin envolver cada valor en un objeto: los
+ * valores quedan seguidos en memoria y recorrerlos no sigue ningún puntero.
+ * <p>
+ * La lista no debe modificarse mientras se recorre.
+ *
+ * @author Quini Roiz
+ */
+public class IntArrayList {
+
+    // mayor tamaño de array que admite la máquina virtual
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private int[] elements;
+    private int size;
+
+    public IntArrayList() {
+        this(10);
+    }
+
+    /**
+     * Constructor de una lista vacía
+     *
+     * @param capacity capacidad inicial del array
+     */
+    public IntArrayList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacidad no válida: " + capacity);
+        }
+        elements = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Método que devuelve el valor de una posición
+     *
+     * @param index posición, entre 0 y size - 1
+     * @return valor de la posición
+     */
+    public int get(int index) {
+        checkIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * Método que sustituye el valor de una posición
+     *
+     * @param index posición, entre 0 y size - 1
+     * @param e nuevo valor
+     * @return valor que había en la posición
+     */
+    public int set(int index, int e) {
+        checkIndex(index, size);
+        int old = elements[index];
+        elements[index] = e;
+        return old;
+    }
+
+    /**
+     * Método que añade un valor al final de la lista
+     *
+     * @param e valor a añadir
+     */
+    public void add(int e) {
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        elements[size++] = e;
+    }
+
+    /**
+     * Método que inserta un valor en una posición, desplazando los siguientes
+     *
+     * @param index posición, entre 0 y size
+     * @param e valor a insertar
+     */
+    public void add(int index, int e) {
+        checkIndex(index, size + 1);
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = e;
+        size++;
+    }
+
+    /**
+     * Método que añade al final todos los valores de un array con una sola
+     * copia
+     *
+     * @param items valores a añadir
+     */
+    public void addAll(int[] items) {
+        ensureCapacity((long) size + items.length);
+        System.arraycopy(items, 0, elements, size, items.length);
+        size += items.length;
+    }
+
+    /**
+     * Método que borra el valor de una posición, desplazando los siguientes
+     *
+     * @param index posición, entre 0 y size - 1
+     * @return valor borrado
+     */
+    public int removeAt(int index) {
+        checkIndex(index, size);
+        int old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    /**
+     * Método que borra los valores que cumplen una condición en una sola
+     * pasada, compactando los que quedan
+     *
+     * @param filter condición de los valores a borrar
+     * @return true si se ha borrado alguno
+     */
+    public boolean removeIf(IntPredicate filter) {
+        int kept = 0;
+        int i = 0;
+        try {
+            for (; i < size; i++) {
+                int e = elements[i];
+                if (!filter.test(e)) {
+                    elements[kept++] = e;
+                }
+            }
+        } finally {
+            // si la condición falla se conservan los que no se han evaluado
+            System.arraycopy(elements, i, elements, kept, size - i);
+            size = kept + size - i;
+        }
+        return kept < i;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Método que devuelve la primera posición de un valor
+     *
+     * @param e valor a buscar
+     * @return posición o -1 si no está
+     */
+    public int indexOf(int e) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == e) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Método que buscará un valor en la lista
+     *
+     * @param e valor a buscar en la lista
+     * @return booleano con el resultado de la comprobación
+     */
+    public boolean search(int e) {
+        return indexOf(e) >= 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Método que copia un tramo de la lista a un array
+     *
+     * @param from primera posición, incluida
+     * @param to última posición, excluida
+     * @return array con los valores del tramo
+     */
+    public int[] toArray(int from, int to) {
+        checkRange(from, to);
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    /**
+     * Método que copia un tramo de la lista a una lista nueva
+     *
+     * @param from primera posición, incluida
+     * @param to última posición, excluida
+     * @return lista con los valores del tramo
+     */
+    public IntArrayList copyOfRange(int from, int to) {
+        checkRange(from, to);
+        IntArrayList copy = new IntArrayList(to - from);
+        System.arraycopy(elements, from, copy.elements, 0, to - from);
+        copy.size = to - from;
+        return copy;
+    }
+
+    /**
+     * Método que ordena la lista de menor a mayor sobre su propio array
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * Método que asegura que caben los valores indicados sin ampliar el array
+     *
+     * @param capacity número de valores que deben caber
+     */
+    public void ensureCapacity(long capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("Lista demasiado grande");
+        }
+        if (capacity > elements.length) {
+            long grown = elements.length + (elements.length >> 1);
+            elements = Arrays.copyOf(elements, (int) Math.min(Math.max(grown, capacity), MAX_CAPACITY));
+        }
+    }
+
+    /**
+     * Método que reduce el array al tamaño de la lista
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * Método que entrega en orden todos los valores a un consumidor
+     *
+     * @param action receptor de los valores
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    /**
+     * Método que devuelve un spliterator sobre los valores actuales, que se
+     * divide por la mitad del tramo que le queda
+     *
+     * @return spliterator ordenado y con tamaño conocido
+     */
+    public Spliterator.OfInt spliterator() {
+        return Spliterators.spliterator(elements, 0, size, Spliterator.ORDERED);
+    }
+
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    private void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Posición: " + index + ", tamaño: " + size);
+        }
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Tramo: [" + from + ", " + to + "), tamaño: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "No hay datos que mostrar.";
+        }
+        StringBuilder res = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            res.append(elements[i]).append(" | ");
+        }
+        return res.toString();
+    }
+}
@@ -7,6 +7,8 @@
  */
 package structuredata.list;
 
+import java.util.Collection;
+import java.util.function.Consumer;
 import structuredata.node.Node;
 import structuredata.node.NodeImpl;
 import structuredata.queue.EmptyQueueException;
@@ -85,6 +87,92 @@ public class LinkedList<E> implements Queue<E> {
         return element;
     }
 
+    @Override
+    public void enqueueAll(E[] items) {
+        Node<E> head = null;
+        Node<E> tail = null;
+        // enlazamos primero los nodos nuevos entre sí y después empalmamos
+        // la cadena entera al final de la cola
+        for (E item : items) {
+            Node<E> n = new NodeImpl<>(item);
+            if (tail == null) {
+                head = n;
+            } else {
+                tail.setNext(n);
+            }
+            tail = n;
+        }
+        splice(head, tail, items.length);
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends E> items) {
+        Node<E> head = null;
+        Node<E> tail = null;
+        int count = 0;
+        for (E item : items) {
+            Node<E> n = new NodeImpl<>(item);
+            if (tail == null) {
+                head = n;
+            } else {
+                tail.setNext(n);
+            }
+            tail = n;
+            count++;
+        }
+        splice(head, tail, count);
+    }
+
+    /**
+     * Método que mueve al final de esta cola todos los elementos de otra, en
+     * tiempo constante y sin crear nodos. La otra cola queda vacía.
+     *
+     * @param other cola cuyos elementos se añaden
+     */
+    public void enqueueAll(LinkedList<E> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("No se puede añadir una cola a sí misma");
+        }
+        splice(other.first, other.last, other.size);
+        other.first = other.last = null;
+        other.size = 0;
+    }
+
+    // empalma al final una cadena ya enlazada de 'count' nodos
+    private void splice(Node<E> head, Node<E> tail, int count) {
+        if (head == null) {
+            return;
+        }
+        if (last != null) {
+            last.setNext(head);
+        } else {
+            first = head;
+        }
+        last = tail;
+        size += count;
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        int drained = 0;
+        try {
+            while (drained < max && first != null) {
+                Node<E> n = first;
+                first = n.getNext();
+                n.setNext(null);
+                drained++;
+                consumer.accept(n.getElement());
+            }
+        } finally {
+            // se actualizan de una vez el tamaño y, si queda vacía, el último
+            if (first == null) {
+                last = null;
+            }
+            size -= drained;
+        }
+        return drained;
+    }
+
     @Override
     public boolean search(E e) {
         boolean caught = false;
@@ -39,7 +39,7 @@ public class NodeImpl<E> implements Node<E>, Comparable<Node<E>> {
 
     @Override
     public Node<E> getNext() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return next;
     }
 
     @Override
@@ -7,8 +7,19 @@
  */
 package structuredata.queue;
 
+import java.util.Collection;
+import java.util.function.Consumer;
+
 /**
  * Clase que implementa una cola a través de un array.
+ * <p>
+ * Por defecto la capacidad es fija y enqueue lanza QueueFullException al
+ * llenarse. En modo ampliable el array dobla su tamaño al llenarse,
+ * desenrollando la zona circular para que la cabeza quede en la posición 0,
+ * y lo reduce a la mitad cuando la ocupación se mantiene por debajo de un
+ * cuarto durante tantas extracciones como medio array, sin bajar nunca de la
+ * capacidad inicial. Cada copia se paga con operaciones previas que no
+ * copian, por lo que enqueue y dequeue siguen siendo O(1) amortizado.
  *
  * @author Quini Roiz
  * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
@@ -16,17 +27,40 @@ package structuredata.queue;
  */
 public class ArrayQueue<E> implements Queue<E> {
 
-    private final E[] elements;
+    // mayor tamaño de array que admite la máquina virtual
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private E[] elements;
     private int currentSize;
     private int front;
     private int back;
+    private final boolean growable;
+    private final int minCapacity;
+    // extracciones seguidas con la ocupación por debajo de un cuarto
+    private int idle;
 
     public ArrayQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Constructor de una cola sobre un array
+     *
+     * @param capacity capacidad inicial de la cola
+     * @param growable true si el array crece al llenarse y decrece con poca
+     * ocupación, false para una capacidad fija
+     */
+    public ArrayQueue(int capacity, boolean growable) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacidad no válida: " + capacity);
+        }
         E[] a = (E[]) new Object[capacity];
         elements = a;
         currentSize = 0;
         front = 0;
         back = -1;
+        this.growable = growable;
+        minCapacity = capacity;
     }
 
     @Override
@@ -42,19 +76,37 @@ public class ArrayQueue<E> implements Queue<E> {
         return elements[front];
     }
 
+    /**
+     * Método que comprueba si la cola está llena. En modo ampliable nunca lo
+     * está, ya que el array crece al añadir.
+     *
+     * @return true si no cabe ningún elemento más
+     */
     public boolean isFull() {
-        return elements.length == currentSize - 1;
+        return !growable && currentSize == elements.length;
+    }
+
+    /**
+     * Método que devuelve el tamaño actual del array
+     *
+     * @return número de elementos que caben sin ampliar el array
+     */
+    public int capacity() {
+        return elements.length;
     }
 
     @Override
     public int size() {
-        return (currentSize - front + back) % currentSize;
+        return currentSize;
     }
 
     @Override
     public void enqueue(E o) throws QueueFullException {
-        if (isFull()) {
-            throw new QueueFullException("Queue is full");
+        if (currentSize == elements.length) {
+            if (!growable) {
+                throw new QueueFullException("Queue is full");
+            }
+            ensureCapacity(currentSize + 1);
         }
         back = increment(back);
         elements[back] = o;
@@ -70,9 +122,112 @@ public class ArrayQueue<E> implements Queue<E> {
         E frontItem = elements[front];
         elements[front] = null;
         front = increment(front);
+        shrinkIfIdle(1);
         return frontItem;
     }
 
+    @Override
+    public void enqueueAll(E[] items) throws QueueFullException {
+        if (growable && items.length > elements.length - currentSize) {
+            ensureCapacity((long) currentSize + items.length);
+        }
+        // copiamos lo que quepa en como mucho dos tramos, antes y después
+        // del final del array
+        int count = Math.min(items.length, elements.length - currentSize);
+        int start = increment(back);
+        int first = Math.min(count, elements.length - start);
+        System.arraycopy(items, 0, elements, start, first);
+        System.arraycopy(items, first, elements, 0, count - first);
+        if (count > 0) {
+            back = (start + count - 1) % elements.length;
+            currentSize += count;
+        }
+        if (count < items.length) {
+            throw new QueueFullException("Queue is full");
+        }
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends E> items) throws QueueFullException {
+        E[] a = (E[]) items.toArray();
+        enqueueAll(a);
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        int count = Math.min(max, currentSize);
+        int drained = 0;
+        int i = front;
+        try {
+            while (drained < count) {
+                E element = elements[i];
+                elements[i] = null;
+                i = increment(i);
+                drained++;
+                consumer.accept(element);
+            }
+        } finally {
+            // si el consumidor falla la cola queda sin lo ya entregado
+            front = i;
+            currentSize -= drained;
+            shrinkIfIdle(drained);
+        }
+        return drained;
+    }
+
+    /**
+     * Método que amplía el array, doblando su tamaño hasta que quepan los
+     * elementos pedidos
+     *
+     * @param needed número de elementos que deben caber
+     * @throws QueueFullException si se supera el tamaño máximo de un array
+     */
+    private void ensureCapacity(long needed) throws QueueFullException {
+        if (needed > MAX_CAPACITY) {
+            throw new QueueFullException("Queue is full");
+        }
+        long length = Math.max(elements.length, 1);
+        while (length < needed) {
+            length *= 2;
+        }
+        resize((int) Math.min(length, MAX_CAPACITY));
+    }
+
+    /**
+     * Método que reduce el array a la mitad si la ocupación lleva tantas
+     * extracciones como medio array por debajo de un cuarto. Tras reducirlo
+     * la cola queda como mucho a la mitad, así que no vuelve a crecer enseguida.
+     *
+     * @param removed número de elementos extraídos en la operación
+     */
+    private void shrinkIfIdle(int removed) {
+        if (!growable || elements.length <= minCapacity) {
+            return;
+        }
+        if (currentSize > elements.length / 4) {
+            idle = 0;
+        } else if ((idle += removed) >= elements.length / 2) {
+            resize(Math.max(elements.length / 2, minCapacity));
+        }
+    }
+
+    /**
+     * Método que copia los elementos a un array nuevo, empezando por la
+     * cabeza en la posición 0
+     *
+     * @param length tamaño del nuevo array, no menor que el de la cola
+     */
+    private void resize(int length) {
+        E[] a = (E[]) new Object[length];
+        int first = Math.min(currentSize, elements.length - front);
+        System.arraycopy(elements, front, a, 0, first);
+        System.arraycopy(elements, 0, a, first, currentSize - first);
+        elements = a;
+        front = 0;
+        back = currentSize - 1;
+        idle = 0;
+    }
+
     private int increment(int x) {
         if (++x == elements.length) {
             x = 0;
@@ -82,13 +237,15 @@ public class ArrayQueue<E> implements Queue<E> {
 
     @Override
     public boolean search(E e) {
+        // recorremos los currentSize elementos desde el frente, dando la
+        // vuelta al array si la cola lo hace
         boolean encontrado = false;
         int pos = front;
-        while (!encontrado && pos < currentSize) {
+        for (int seen = 0; !encontrado && seen < currentSize; seen++) {
             if (e.equals(elements[pos])) {
                 encontrado = true;
             } else {
-                pos++;
+                pos = increment(pos);
             }
         }
         return encontrado;
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interfaz de las colas concurrentes en las que un hilo puede esperar a que
+ * haya hueco o elementos, sin tener que reintentar él mismo las operaciones
+ * ni capturar las excepciones de cola llena o vacía.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public interface BlockingQueue<E> extends ConcurrentQueue<E> {
+
+    /**
+     * Método que añade un elemento, esperando sin límite a que haya hueco
+     *
+     * @param o Elemento a añadir a la cola, no nulo
+     * @throws InterruptedException si se interrumpe el hilo mientras espera
+     */
+    void put(E o) throws InterruptedException;
+
+    /**
+     * Método que desencola el primer elemento, esperando sin límite a que lo
+     * haya
+     *
+     * @return primer elemento de la cola
+     * @throws InterruptedException si se interrumpe el hilo mientras espera
+     */
+    E take() throws InterruptedException;
+
+    /**
+     * Método que añade un elemento, esperando como mucho el plazo indicado a
+     * que haya hueco
+     *
+     * @param o Elemento a añadir a la cola, no nulo
+     * @param timeout plazo máximo de espera
+     * @param unit unidad del plazo
+     * @return true si se ha añadido, false si venció el plazo
+     * @throws InterruptedException si se interrumpe el hilo mientras espera
+     */
+    boolean offer(E o, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Método que desencola el primer elemento, esperando como mucho el plazo
+     * indicado a que lo haya
+     *
+     * @param timeout plazo máximo de espera
+     * @param unit unidad del plazo
+     * @return primer elemento de la cola o null si venció el plazo
+     * @throws InterruptedException si se interrumpe el hilo mientras espera
+     */
+    E poll(long timeout, TimeUnit unit) throws InterruptedException;
+}
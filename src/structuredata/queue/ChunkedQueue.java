@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.Collection;
+
+/**
+ * Cola sin límite de capacidad formada por una lista enlazada de bloques de
+ * tamaño fijo. A diferencia de la lista enlazada, que crea un nodo por
+ * elemento, aquí cada elemento ocupa un solo hueco de un array y el coste del
+ * enlace se reparte entre todo el bloque.
+ * <p>
+ * Se escribe al final del último bloque y se lee desde el principio del
+ * primero. Cuando un bloque se vacía se guarda como repuesto y se reutiliza
+ * al necesitar el siguiente, por lo que una cola con un tamaño estable no
+ * crea bloques nuevos.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class ChunkedQueue<E> implements Queue<E> {
+
+    private static final int DEFAULT_CHUNK = 1024;
+
+    private final int chunkSize;
+    // primer bloque y siguiente posición a leer en él
+    private Chunk head;
+    private int headIndex;
+    // último bloque y siguiente posición a escribir en él
+    private Chunk tail;
+    private int tailIndex;
+    // último bloque vaciado, para no crear otro
+    private Chunk spare;
+    private int size;
+
+    public ChunkedQueue() {
+        this(DEFAULT_CHUNK);
+    }
+
+    /**
+     * Constructor de una cola con el tamaño de bloque indicado
+     *
+     * @param chunkSize número de elementos de cada bloque
+     */
+    public ChunkedQueue(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Tamaño de bloque no válido: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        head = tail = new Chunk(chunkSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public E front() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("front: Queue is empty!!");
+        }
+        return (E) head.items[headIndex];
+    }
+
+    @Override
+    public void enqueue(E o) {
+        if (tailIndex == chunkSize) {
+            addChunk();
+        }
+        tail.items[tailIndex++] = o;
+        size++;
+    }
+
+    @Override
+    public E dequeue() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        E element = (E) head.items[headIndex];
+        head.items[headIndex++] = null;
+        size--;
+        if (size == 0) {
+            // vacía: volvemos al principio del bloque para no cambiar de
+            // bloque en una cola que se llena y vacía continuamente
+            headIndex = tailIndex = 0;
+        } else if (headIndex == chunkSize) {
+            Chunk old = head;
+            head = old.next;
+            headIndex = 0;
+            old.next = null;
+            spare = old;
+        }
+        return element;
+    }
+
+    @Override
+    public void enqueueAll(E[] items) {
+        // copiamos por tramos, llenando cada bloque de una vez
+        int copied = 0;
+        while (copied < items.length) {
+            if (tailIndex == chunkSize) {
+                addChunk();
+            }
+            int count = Math.min(items.length - copied, chunkSize - tailIndex);
+            System.arraycopy(items, copied, tail.items, tailIndex, count);
+            tailIndex += count;
+            copied += count;
+        }
+        size += items.length;
+    }
+
+    @Override
+    public void enqueueAll(Collection<? extends E> items) {
+        E[] a = (E[]) items.toArray();
+        enqueueAll(a);
+    }
+
+    @Override
+    public boolean search(E e) {
+        Chunk c = head;
+        int i = headIndex;
+        for (int seen = 0; seen < size; seen++) {
+            if (i == chunkSize) {
+                c = c.next;
+                i = 0;
+            }
+            if (e.equals(c.items[i++])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método que enlaza un bloque vacío tras el último, reutilizando el de
+     * repuesto si lo hay
+     */
+    private void addChunk() {
+        Chunk c = spare;
+        if (c != null) {
+            spare = null;
+        } else {
+            c = new Chunk(chunkSize);
+        }
+        tail.next = c;
+        tail = c;
+        tailIndex = 0;
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "No hay datos que mostrar.";
+        }
+        StringBuilder res = new StringBuilder();
+        Chunk c = head;
+        int i = headIndex;
+        for (int seen = 0; seen < size; seen++) {
+            if (i == chunkSize) {
+                c = c.next;
+                i = 0;
+            }
+            res.append(c.items[i++]).append(" | ");
+        }
+        return res.toString();
+    }
+
+    /**
+     * Bloque de elementos de la cola
+     */
+    private static final class Chunk {
+
+        final Object[] items;
+        Chunk next;
+
+        Chunk(int size) {
+            items = new Object[size];
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+/**
+ * Fuente de tiempo de las colas con plazos. Permite sustituir el reloj del
+ * sistema por uno controlado, por ejemplo para avanzar el tiempo a mano en
+ * una prueba.
+ *
+ * @author Quini Roiz
+ */
+@FunctionalInterface
+public interface Clock {
+
+    /**
+     * Método que devuelve el instante actual en nanosegundos. Solo importa la
+     * diferencia entre dos lecturas, que nunca debe ser negativa.
+     *
+     * @return instante actual en nanosegundos
+     */
+    long nanoTime();
+
+    /**
+     * Método que devuelve el reloj monótono del sistema
+     *
+     * @return reloj basado en System.nanoTime
+     */
+    static Clock system() {
+        return System::nanoTime;
+    }
+}
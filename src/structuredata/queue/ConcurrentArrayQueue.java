@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cola acotada sin bloqueos para varios productores y varios consumidores,
+ * sobre un array circular (algoritmo de D. Vyukov).
+ * <p>
+ * Cada hueco del array tiene un número de secuencia que indica si está libre
+ * para la vuelta actual de los productores o lleno para la de los
+ * consumidores. Un productor reserva la posición de la cola con un CAS,
+ * escribe el elemento y publica el hueco actualizando su secuencia; un
+ * consumidor hace lo mismo con la cabeza. Así los productores solo compiten
+ * entre sí por la cola y los consumidores por la cabeza, y ninguna operación
+ * espera a que otro hilo termine la suya más allá de ese hueco.
+ * <p>
+ * La capacidad se redondea a potencia de dos para calcular el hueco con una
+ * máscara en lugar de con el resto de una división.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class ConcurrentArrayQueue<E> extends PaddedIndexes implements ConcurrentQueue<E> {
+
+    private final E[] elements;
+    private final AtomicLongArray sequence;
+    private final int mask;
+
+    public ConcurrentArrayQueue(int capacity) {
+        // con un solo hueco la secuencia de un hueco lleno coincide con la
+        // posición siguiente y se tomaría por libre, así que hacen falta dos
+        int n = Math.max(2, powerOfTwo(capacity));
+        E[] a = (E[]) new Object[n];
+        elements = a;
+        sequence = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++) {
+            sequence.set(i, i);
+        }
+        mask = n - 1;
+    }
+
+    /**
+     * Método que redondea una capacidad a la siguiente potencia de dos
+     *
+     * @param capacity capacidad pedida, mayor que 0
+     * @return menor potencia de dos no menor que la capacidad
+     */
+    static int powerOfTwo(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacidad no válida: " + capacity);
+        }
+        return capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    @Override
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public int size() {
+        return currentSize(capacity());
+    }
+
+    @Override
+    public boolean offer(E o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        long t;
+        int i;
+        while (true) {
+            t = tail;
+            i = (int) t & mask;
+            long s = sequence.get(i);
+            if (s == t) {
+                if (casTail(t, t + 1)) {
+                    break;
+                }
+            } else if (s < t) {
+                // el hueco aún guarda un elemento de la vuelta anterior
+                return false;
+            }
+            // otro productor se ha adelantado: reintentamos
+        }
+        elements[i] = o;
+        // publicamos el hueco para los consumidores de esta vuelta
+        sequence.lazySet(i, t + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long h;
+        int i;
+        while (true) {
+            h = head;
+            i = (int) h & mask;
+            long s = sequence.get(i);
+            if (s == h + 1) {
+                if (casHead(h, h + 1)) {
+                    break;
+                }
+            } else if (s < h + 1) {
+                // ningún productor ha publicado aún este hueco
+                return null;
+            }
+        }
+        E element = elements[i];
+        elements[i] = null;
+        // liberamos el hueco para los productores de la siguiente vuelta
+        sequence.lazySet(i, h + mask + 1);
+        return element;
+    }
+
+    @Override
+    public E peek() {
+        while (true) {
+            long h = head;
+            int i = (int) h & mask;
+            long s = sequence.get(i);
+            if (s < h + 1) {
+                return null;
+            }
+            E element = elements[i];
+            // si la cabeza no se ha movido nadie ha sacado el elemento leído
+            if (s == h + 1 && head == h) {
+                return element;
+            }
+        }
+    }
+
+    /**
+     * Busca un elemento entre los que hay en la cola. Si otros hilos la
+     * modifican a la vez, el resultado refleja algún estado intermedio.
+     *
+     * @param e elemento a buscar en la cola
+     * @return booleano con el resultado de la comprobación
+     */
+    @Override
+    public boolean search(E e) {
+        long t = tail;
+        for (long p = head; p < t; p++) {
+            int i = (int) p & mask;
+            if (sequence.get(i) == p + 1) {
+                E element = elements[i];
+                // el hueco no debe haberse vaciado mientras lo leíamos
+                if (e.equals(element) && sequence.get(i) == p + 1) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.function.Consumer;
+
+/**
+ * Interfaz de las colas que pueden compartirse entre hilos. Añade a la cola
+ * básica operaciones que no lanzan excepción cuando la cola está llena o
+ * vacía, para no crear una excepción en cada intento fallido de un hilo que
+ * espera a otro. Las operaciones de la cola básica se implementan sobre
+ * ellas.
+ * <p>
+ * No admiten elementos nulos, ya que null indica que la cola está vacía.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public interface ConcurrentQueue<E> extends Queue<E> {
+
+    /**
+     * Método que añade un elemento a la cola si hay hueco
+     *
+     * @param o Elemento a añadir a la cola, no nulo
+     * @return true si se ha añadido, false si la cola estaba llena
+     */
+    boolean offer(E o);
+
+    /**
+     * Método que desencola el primer elemento de la cola si lo hay
+     *
+     * @return primer elemento de la cola o null si estaba vacía
+     */
+    E poll();
+
+    /**
+     * Método que devuelve el primer elemento sin sacarlo de la cola
+     *
+     * @return primer elemento de la cola o null si está vacía
+     */
+    E peek();
+
+    /**
+     * Método que devuelve el número máximo de elementos de la cola
+     *
+     * @return capacidad de la cola
+     */
+    int capacity();
+
+    @Override
+    default E front() throws EmptyQueueException {
+        E element = peek();
+        if (element == null) {
+            throw new EmptyQueueException("front: Queue is empty!!");
+        }
+        return element;
+    }
+
+    @Override
+    default void enqueue(E o) throws QueueFullException {
+        if (!offer(o)) {
+            throw new QueueFullException("Queue is full");
+        }
+    }
+
+    @Override
+    default E dequeue() throws EmptyQueueException {
+        E element = poll();
+        if (element == null) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        return element;
+    }
+
+    @Override
+    default int drainTo(Consumer<? super E> consumer, int max) {
+        int count = 0;
+        E element;
+        while (count < max && (element = poll()) != null) {
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
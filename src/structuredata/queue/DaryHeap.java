@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Cola de prioridad sobre un montículo de mínimos d-ario guardado en un
+ * array: dequeue y front devuelven el menor elemento según el comparador.
+ * <p>
+ * Con más hijos por nodo el montículo es menos profundo, por lo que enqueue
+ * hace menos comparaciones, a cambio de comparar más hijos en dequeue. Con
+ * aridad 4 los hijos de un nodo suelen caer en la misma línea de caché. El
+ * array dobla su tamaño al llenarse, por lo que la cola no tiene límite.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class DaryHeap<E> implements Queue<E> {
+
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private final Comparator<? super E> comparator;
+    private E[] heap;
+    private int size;
+
+    /**
+     * Constructor de un montículo de aridad 4 que ordena por el orden natural
+     * de los elementos
+     */
+    public DaryHeap() {
+        this(DEFAULT_ARITY, null);
+    }
+
+    /**
+     * Constructor de un montículo
+     *
+     * @param arity número de hijos de cada nodo, al menos 2
+     * @param comparator orden de los elementos, null para su orden natural
+     */
+    public DaryHeap(int arity, Comparator<? super E> comparator) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Aridad no válida: " + arity);
+        }
+        this.arity = arity;
+        this.comparator = comparator;
+        E[] a = (E[]) new Object[16];
+        heap = a;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public E front() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("front: Queue is empty!!");
+        }
+        return heap[0];
+    }
+
+    @Override
+    public void enqueue(E o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        siftUp(size++, o);
+    }
+
+    @Override
+    public E dequeue() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        E min = heap[0];
+        E last = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return min;
+    }
+
+    @Override
+    public boolean search(E e) {
+        for (int i = 0; i < size; i++) {
+            if (e.equals(heap[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método que sube un elemento desde una posición hasta su sitio,
+     * bajando a los padres mayores que él
+     *
+     * @param i posición libre de la que parte
+     * @param e elemento a colocar
+     */
+    private void siftUp(int i, E e) {
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            if (compare(heap[parent], e) <= 0) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = e;
+    }
+
+    /**
+     * Método que baja un elemento desde una posición hasta su sitio, subiendo
+     * al menor de los hijos mientras sea menor que él
+     *
+     * @param i posición libre de la que parte
+     * @param e elemento a colocar
+     */
+    private void siftDown(int i, E e) {
+        int child;
+        while ((child = i * arity + 1) < size) {
+            int end = Math.min(child + arity, size);
+            int min = child;
+            for (int c = child + 1; c < end; c++) {
+                if (compare(heap[c], heap[min]) < 0) {
+                    min = c;
+                }
+            }
+            if (compare(e, heap[min]) <= 0) {
+                break;
+            }
+            heap[i] = heap[min];
+            i = min;
+        }
+        heap[i] = e;
+    }
+
+    private int compare(E a, E b) {
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super E>) a).compareTo(b);
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "No hay datos que mostrar.";
+        }
+        StringBuilder res = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            res.append(heap[i]).append(" | ");
+        }
+        return res.toString();
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Cola que lleva, junto a los elementos, cuántas veces está cada uno en una
+ * tabla hash. Así search no recorre la cola sino que consulta la tabla en
+ * O(1), y enqueueIfAbsent comprueba y añade en una sola operación, con lo que
+ * filtrar duplicados antes de encolar deja de ser cuadrático.
+ * <p>
+ * Los elementos se guardan en otra cola, que no debe modificarse después
+ * directamente para no desajustar la cuenta. Los elementos deben
+ * implementar equals y hashCode de forma coherente.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class DedupQueue<E> implements Queue<E> {
+
+    private final Queue<E> queue;
+    private final Map<E, Integer> counts = new HashMap<>();
+
+    /**
+     * Constructor de una cola sin límite sobre una cola de array ampliable
+     */
+    public DedupQueue() {
+        this(new ArrayQueue<>(16, true));
+    }
+
+    /**
+     * Constructor sobre una cola existente, que debe estar vacía
+     *
+     * @param queue cola en la que se guardan los elementos
+     */
+    public DedupQueue(Queue<E> queue) {
+        if (!queue.isEmpty()) {
+            throw new IllegalArgumentException("La cola debe estar vacía");
+        }
+        this.queue = queue;
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public E front() throws EmptyQueueException {
+        return queue.front();
+    }
+
+    @Override
+    public void enqueue(E o) throws QueueFullException {
+        // solo contamos el elemento si la cola lo ha aceptado
+        queue.enqueue(o);
+        counts.merge(o, 1, Integer::sum);
+    }
+
+    /**
+     * Método que añade un elemento solo si no está ya en la cola
+     *
+     * @param o Elemento a añadir a la cola
+     * @return true si se ha añadido, false si ya estaba
+     * @throws QueueFullException en caso de cola llena
+     */
+    public boolean enqueueIfAbsent(E o) throws QueueFullException {
+        if (counts.containsKey(o)) {
+            return false;
+        }
+        queue.enqueue(o);
+        counts.put(o, 1);
+        return true;
+    }
+
+    @Override
+    public E dequeue() throws EmptyQueueException {
+        E element = queue.dequeue();
+        forget(element);
+        return element;
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        return queue.drainTo(element -> {
+            forget(element);
+            consumer.accept(element);
+        }, max);
+    }
+
+    /**
+     * Método que devuelve cuántas veces está un elemento en la cola
+     *
+     * @param e elemento a buscar en la cola
+     * @return número de apariciones, 0 si no está
+     */
+    public int count(E e) {
+        return counts.getOrDefault(e, 0);
+    }
+
+    @Override
+    public boolean search(E e) {
+        return counts.containsKey(e);
+    }
+
+    /**
+     * Método que descuenta una aparición de un elemento desencolado
+     *
+     * @param element elemento que ha salido de la cola
+     */
+    private void forget(E element) {
+        counts.computeIfPresent(element, (k, n) -> n == 1 ? null : n - 1);
+    }
+
+    @Override
+    public String toString() {
+        return queue.toString();
+    }
+}
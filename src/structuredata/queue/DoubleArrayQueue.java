@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Cola de valores double sobre un array circular de primitivos, equivalente a
+ * {@link ArrayQueue} sin crear ningún objeto al encolar o desencolar.
+ * <p>
+ * Igual que ella admite una capacidad fija o un modo ampliable que dobla el
+ * array al llenarse y lo reduce a la mitad con poca ocupación sostenida.
+ * <p>
+ * search compara como {@link Double#equals}: NaN se encuentra a sí mismo y
+ * 0.0 no coincide con -0.0.
+ *
+ * @author Quini Roiz
+ */
+public class DoubleArrayQueue implements DoubleQueue {
+
+    // mayor tamaño de array que admite la máquina virtual
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private double[] elements;
+    private int currentSize;
+    private int front;
+    private int back;
+    private final boolean growable;
+    private final int minCapacity;
+    // extracciones seguidas con la ocupación por debajo de un cuarto
+    private int idle;
+
+    public DoubleArrayQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Constructor de una cola sobre un array
+     *
+     * @param capacity capacidad inicial de la cola
+     * @param growable true si el array crece al llenarse y decrece con poca
+     * ocupación, false para una capacidad fija
+     */
+    public DoubleArrayQueue(int capacity, boolean growable) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacidad no válida: " + capacity);
+        }
+        elements = new double[capacity];
+        currentSize = 0;
+        front = 0;
+        back = -1;
+        this.growable = growable;
+        minCapacity = capacity;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    @Override
+    public double front() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("getFront: Queue is empty!!");
+        }
+        return elements[front];
+    }
+
+    /**
+     * Método que comprueba si la cola está llena. En modo ampliable nunca lo
+     * está, ya que el array crece al añadir.
+     *
+     * @return true si no cabe ningún elemento más
+     */
+    public boolean isFull() {
+        return !growable && currentSize == elements.length;
+    }
+
+    /**
+     * Método que devuelve el tamaño actual del array
+     *
+     * @return número de elementos que caben sin ampliar el array
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    public int size() {
+        return currentSize;
+    }
+
+    @Override
+    public void enqueue(double o) throws QueueFullException {
+        if (currentSize == elements.length) {
+            if (!growable) {
+                throw new QueueFullException("Queue is full");
+            }
+            ensureCapacity(currentSize + 1);
+        }
+        back = increment(back);
+        elements[back] = o;
+        currentSize++;
+    }
+
+    @Override
+    public double dequeue() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        currentSize--;
+        double frontItem = elements[front];
+        front = increment(front);
+        shrinkIfIdle(1);
+        return frontItem;
+    }
+
+    @Override
+    public void enqueueAll(double[] items) throws QueueFullException {
+        if (growable && items.length > elements.length - currentSize) {
+            ensureCapacity((long) currentSize + items.length);
+        }
+        // copiamos lo que quepa en como mucho dos tramos, antes y después
+        // del final del array
+        int count = Math.min(items.length, elements.length - currentSize);
+        int start = increment(back);
+        int first = Math.min(count, elements.length - start);
+        System.arraycopy(items, 0, elements, start, first);
+        System.arraycopy(items, first, elements, 0, count - first);
+        if (count > 0) {
+            back = (start + count - 1) % elements.length;
+            currentSize += count;
+        }
+        if (count < items.length) {
+            throw new QueueFullException("Queue is full");
+        }
+    }
+
+    @Override
+    public int drainTo(DoubleConsumer consumer, int max) {
+        int count = Math.min(max, currentSize);
+        int drained = 0;
+        int i = front;
+        try {
+            while (drained < count) {
+                double element = elements[i];
+                i = increment(i);
+                drained++;
+                consumer.accept(element);
+            }
+        } finally {
+            // si el consumidor falla la cola queda sin lo ya entregado
+            front = i;
+            currentSize -= drained;
+            shrinkIfIdle(drained);
+        }
+        return drained;
+    }
+
+    @Override
+    public boolean search(double e) {
+        int pos = front;
+        for (int seen = 0; seen < currentSize; seen++) {
+            if (Double.compare(elements[pos], e) == 0) {
+                return true;
+            }
+            pos = increment(pos);
+        }
+        return false;
+    }
+
+    /**
+     * Método que amplía el array, doblando su tamaño hasta que quepan los
+     * elementos pedidos
+     *
+     * @param needed número de elementos que deben caber
+     * @throws QueueFullException si se supera el tamaño máximo de un array
+     */
+    private void ensureCapacity(long needed) throws QueueFullException {
+        if (needed > MAX_CAPACITY) {
+            throw new QueueFullException("Queue is full");
+        }
+        long length = Math.max(elements.length, 1);
+        while (length < needed) {
+            length *= 2;
+        }
+        resize((int) Math.min(length, MAX_CAPACITY));
+    }
+
+    /**
+     * Método que reduce el array a la mitad si la ocupación lleva tantas
+     * extracciones como medio array por debajo de un cuarto
+     *
+     * @param removed número de elementos extraídos en la operación
+     */
+    private void shrinkIfIdle(int removed) {
+        if (!growable || elements.length <= minCapacity) {
+            return;
+        }
+        if (currentSize > elements.length / 4) {
+            idle = 0;
+        } else if ((idle += removed) >= elements.length / 2) {
+            resize(Math.max(elements.length / 2, minCapacity));
+        }
+    }
+
+    /**
+     * Método que copia los elementos a un array nuevo, empezando por la
+     * cabeza en la posición 0
+     *
+     * @param length tamaño del nuevo array, no menor que el de la cola
+     */
+    private void resize(int length) {
+        double[] a = new double[length];
+        int first = Math.min(currentSize, elements.length - front);
+        System.arraycopy(elements, front, a, 0, first);
+        System.arraycopy(elements, 0, a, first, currentSize - first);
+        elements = a;
+        front = 0;
+        back = currentSize - 1;
+        idle = 0;
+    }
+
+    private int increment(int x) {
+        if (++x == elements.length) {
+            x = 0;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.ArrayDeque;
+
+/**
+ * Cola de prioridad de valores double sobre un montículo de emparejamiento,
+ * equivalente a {@link PairingHeap} sin envolver cada valor en un objeto. Los
+ * valores se ordenan como en {@link Double#compare}.
+ * <p>
+ * El montículo es un árbol en el que cada nodo es menor que sus hijos,
+ * guardados como lista enlazada. Insertar y unir dos montículos enlaza dos
+ * raíces en O(1); sacar el mínimo empareja sus hijos de dos en dos de
+ * izquierda a derecha y une los resultados de derecha a izquierda, en
+ * O(log n) amortizado.
+ *
+ * @author Quini Roiz
+ */
+public class DoublePairingHeap implements DoubleQueue {
+
+    private Node root;
+    private int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public double front() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("front: Queue is empty!!");
+        }
+        return root.element;
+    }
+
+    @Override
+    public void enqueue(double o) {
+        Node n = new Node(o);
+        root = root == null ? n : link(root, n);
+        size++;
+    }
+
+    @Override
+    public double dequeue() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        double min = root.element;
+        root = mergePairs(root.child);
+        size--;
+        return min;
+    }
+
+    /**
+     * Método que pasa a este montículo todos los elementos de otro en O(1),
+     * dejando el otro vacío
+     *
+     * @param other montículo a unir con este
+     */
+    public void meld(DoublePairingHeap other) {
+        if (other == this || other.root == null) {
+            return;
+        }
+        root = root == null ? other.root : link(root, other.root);
+        size += other.size;
+        other.root = null;
+        other.size = 0;
+    }
+
+    @Override
+    public boolean search(double e) {
+        if (root == null) {
+            return false;
+        }
+        // recorrido en profundidad sin recursión, el árbol puede ser muy alto
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            for (Node n = pending.pop(); n != null; n = n.sibling) {
+                if (Double.compare(n.element, e) == 0) {
+                    return true;
+                }
+                if (n.child != null) {
+                    pending.push(n.child);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método que enlaza dos raíces, haciendo de la mayor el primer hijo de la
+     * menor
+     *
+     * @param a raíz sin hermanos
+     * @param b raíz sin hermanos
+     * @return raíz del árbol unido
+     */
+    private Node link(Node a, Node b) {
+        if (Double.compare(b.element, a.element) < 0) {
+            Node t = a;
+            a = b;
+            b = t;
+        }
+        b.sibling = a.child;
+        a.child = b;
+        return a;
+    }
+
+    /**
+     * Método que une una lista de hermanos en un solo árbol con las dos
+     * pasadas del montículo de emparejamiento
+     *
+     * @param first primer hermano de la lista, puede ser null
+     * @return raíz del árbol unido o null si la lista estaba vacía
+     */
+    private Node mergePairs(Node first) {
+        // primera pasada: enlazamos por parejas y apilamos cada resultado
+        // usando el propio enlace al hermano, lo que invierte el orden
+        Node paired = null;
+        while (first != null) {
+            Node a = first;
+            Node b = a.sibling;
+            if (b == null) {
+                a.sibling = paired;
+                paired = a;
+                break;
+            }
+            first = b.sibling;
+            a.sibling = null;
+            b.sibling = null;
+            Node m = link(a, b);
+            m.sibling = paired;
+            paired = m;
+        }
+        // segunda pasada: unimos de derecha a izquierda
+        Node result = null;
+        while (paired != null) {
+            Node next = paired.sibling;
+            paired.sibling = null;
+            result = result == null ? paired : link(paired, result);
+            paired = next;
+        }
+        return result;
+    }
+
+    /**
+     * Nodo del montículo, con su primer hijo y su siguiente hermano
+     */
+    private static final class Node {
+
+        final double element;
+        Node child;
+        Node sibling;
+
+        Node(double element) {
+            this.element = element;
+        }
+    }
+}
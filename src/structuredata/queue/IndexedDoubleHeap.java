@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.Arrays;
+
+/**
+ * Montículo binario de mínimos indexado, con elementos enteros en el rango
+ * [0, capacidad) y prioridades double. Cada elemento sabe su posición en el
+ * montículo, por lo que se puede reducir su prioridad en O(log n) sin tener
+ * que insertarlo de nuevo. No reserva memoria tras su creación.
+ *
+ * @author Quini Roiz
+ */
+public class IndexedDoubleHeap {
+
+    // elementos en orden de montículo y su prioridad en la misma posición
+    private final int[] heap;
+    private final double[] keys;
+    // posición de cada elemento en el montículo, -1 si no está
+    private final int[] position;
+    private int size;
+
+    public IndexedDoubleHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Método que comprueba si un elemento está en el montículo
+     *
+     * @param item elemento a comprobar
+     * @return true si está, false en caso contrario
+     */
+    public boolean contains(int item) {
+        return position[item] >= 0;
+    }
+
+    /**
+     * Método que devuelve la prioridad actual de un elemento del montículo
+     *
+     * @param item elemento del montículo
+     * @return prioridad del elemento
+     */
+    public double key(int item) {
+        return keys[position[item]];
+    }
+
+    /**
+     * Método que añade un elemento que no esté ya en el montículo
+     *
+     * @param item elemento a añadir
+     * @param key prioridad del elemento
+     */
+    public void insert(int item, double key) {
+        if (position[item] >= 0) {
+            throw new IllegalArgumentException("El elemento " + item + " ya está en el montículo");
+        }
+        heap[size] = item;
+        keys[size] = key;
+        position[item] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Método que reduce la prioridad de un elemento del montículo
+     *
+     * @param item elemento del montículo
+     * @param key nueva prioridad, no mayor que la actual
+     */
+    public void decreaseKey(int item, double key) {
+        int i = position[item];
+        if (key > keys[i]) {
+            throw new IllegalArgumentException("La nueva prioridad es mayor que la actual");
+        }
+        keys[i] = key;
+        siftUp(i);
+    }
+
+    /**
+     * Método que cambia la prioridad de un elemento del montículo, sea mayor o
+     * menor que la actual
+     *
+     * @param item elemento del montículo
+     * @param key nueva prioridad
+     */
+    public void changeKey(int item, double key) {
+        int i = position[item];
+        double old = keys[i];
+        keys[i] = key;
+        if (key < old) {
+            siftUp(i);
+        } else {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Método que inserta el elemento si no estaba o reduce su prioridad si la
+     * nueva es menor
+     *
+     * @param item elemento
+     * @param key prioridad
+     * @return true si el montículo ha cambiado
+     */
+    public boolean update(int item, double key) {
+        int i = position[item];
+        if (i < 0) {
+            insert(item, key);
+            return true;
+        } else if (key < keys[i]) {
+            keys[i] = key;
+            siftUp(i);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Método que devuelve el elemento de menor prioridad sin sacarlo
+     *
+     * @return elemento de menor prioridad o -1 si está vacío
+     */
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    /**
+     * Método que devuelve la menor prioridad del montículo
+     *
+     * @return menor prioridad o infinito si está vacío
+     */
+    public double peekKey() {
+        return size == 0 ? Double.POSITIVE_INFINITY : keys[0];
+    }
+
+    /**
+     * Método que saca el elemento de menor prioridad
+     *
+     * @return elemento de menor prioridad o -1 si está vacío
+     */
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int item = heap[0];
+        position[item] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            keys[0] = keys[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return item;
+    }
+
+    /**
+     * Método que vacía el montículo en tiempo proporcional a su tamaño
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int item = heap[i];
+        double key = keys[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        place(item, key, i);
+    }
+
+    private void siftDown(int i) {
+        int item = heap[i];
+        double key = keys[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        place(item, key, i);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        position[heap[to]] = to;
+    }
+
+    private void place(int item, double key, int i) {
+        heap[i] = item;
+        keys[i] = key;
+        position[item] = i;
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cola de prioridad sobre un montículo binario de mínimos indexado: una tabla
+ * hash guarda la posición de cada elemento en el montículo, de modo que se
+ * puede recolocar un elemento cuya prioridad ha cambiado en O(log n) sin
+ * sacarlo y volver a insertarlo, y search responde en O(1).
+ * <p>
+ * Los elementos son distintos entre sí, y su equals y hashCode no deben
+ * depender de la prioridad, que puede cambiar mientras están en la cola. Para
+ * elementos enteros con prioridad double está {@link IndexedDoubleHeap}, que
+ * no necesita la tabla.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class IndexedHeap<E> implements Queue<E> {
+
+    private final Comparator<? super E> comparator;
+    private final Map<E, Integer> position = new HashMap<>();
+    private E[] heap;
+    private int size;
+
+    /**
+     * Constructor de un montículo que ordena por el orden natural de los
+     * elementos
+     */
+    public IndexedHeap() {
+        this(null);
+    }
+
+    /**
+     * Constructor de un montículo
+     *
+     * @param comparator orden de los elementos, null para su orden natural
+     */
+    public IndexedHeap(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        E[] a = (E[]) new Object[16];
+        heap = a;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public E front() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("front: Queue is empty!!");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Método que añade un elemento que no esté ya en la cola
+     *
+     * @param o Elemento a añadir a la cola
+     */
+    @Override
+    public void enqueue(E o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        if (position.containsKey(o)) {
+            throw new IllegalArgumentException("El elemento " + o + " ya está en el montículo");
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        siftUp(size++, o);
+    }
+
+    @Override
+    public E dequeue() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        E min = heap[0];
+        position.remove(min);
+        E last = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return min;
+    }
+
+    @Override
+    public boolean search(E e) {
+        return position.containsKey(e);
+    }
+
+    /**
+     * Método que recoloca un elemento cuya prioridad se ha reducido
+     *
+     * @param e elemento de la cola
+     */
+    public void decreaseKey(E e) {
+        siftUp(indexOf(e), e);
+    }
+
+    /**
+     * Método que recoloca un elemento cuya prioridad ha cambiado, sea a más o
+     * a menos
+     *
+     * @param e elemento de la cola
+     */
+    public void update(E e) {
+        int i = indexOf(e);
+        siftUp(i, e);
+        if (heap[i] == e) {
+            siftDown(i, e);
+        }
+    }
+
+    /**
+     * Método que saca un elemento cualquiera de la cola
+     *
+     * @param e elemento a sacar
+     * @return true si estaba en la cola
+     */
+    public boolean remove(E e) {
+        Integer i = position.remove(e);
+        if (i == null) {
+            return false;
+        }
+        E last = heap[--size];
+        heap[size] = null;
+        if (i < size) {
+            // el último ocupa el hueco y puede tener que subir o bajar
+            siftUp(i, last);
+            if (heap[i] == last) {
+                siftDown(i, last);
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(E e) {
+        Integer i = position.get(e);
+        if (i == null) {
+            throw new IllegalArgumentException("El elemento " + e + " no está en el montículo");
+        }
+        return i;
+    }
+
+    private void siftUp(int i, E e) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(heap[parent], e) <= 0) {
+                break;
+            }
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(e, i);
+    }
+
+    private void siftDown(int i, E e) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (compare(e, heap[child]) <= 0) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(e, i);
+    }
+
+    private void place(E e, int i) {
+        heap[i] = e;
+        position.put(e, i);
+    }
+
+    private int compare(E a, E b) {
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super E>) a).compareTo(b);
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "No hay datos que mostrar.";
+        }
+        StringBuilder res = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            res.append(heap[i]).append(" | ");
+        }
+        return res.toString();
+    }
+}
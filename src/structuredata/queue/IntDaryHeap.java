@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.Arrays;
+
+/**
+ * Cola de prioridad de valores int sobre un montículo de mínimos d-ario,
+ * equivalente a {@link DaryHeap} sin envolver cada valor en un objeto:
+ * dequeue y front devuelven el menor valor de la cola.
+ *
+ * @author Quini Roiz
+ */
+public class IntDaryHeap implements IntQueue {
+
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private int[] heap;
+    private int size;
+
+    public IntDaryHeap() {
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructor de un montículo
+     *
+     * @param arity número de hijos de cada nodo, al menos 2
+     */
+    public IntDaryHeap(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Aridad no válida: " + arity);
+        }
+        this.arity = arity;
+        heap = new int[16];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int front() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("front: Queue is empty!!");
+        }
+        return heap[0];
+    }
+
+    @Override
+    public void enqueue(int o) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        siftUp(size++, o);
+    }
+
+    @Override
+    public int dequeue() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        int min = heap[0];
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return min;
+    }
+
+    @Override
+    public boolean search(int e) {
+        for (int i = 0; i < size; i++) {
+            if (heap[i] == e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void siftUp(int i, int e) {
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            if (!less(e, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = e;
+    }
+
+    private void siftDown(int i, int e) {
+        int child;
+        while ((child = i * arity + 1) < size) {
+            int end = Math.min(child + arity, size);
+            int min = child;
+            for (int c = child + 1; c < end; c++) {
+                if (less(heap[c], heap[min])) {
+                    min = c;
+                }
+            }
+            if (!less(heap[min], e)) {
+                break;
+            }
+            heap[i] = heap[min];
+            i = min;
+        }
+        heap[i] = e;
+    }
+
+    private static boolean less(int a, int b) {
+        return a < b;
+    }
+}
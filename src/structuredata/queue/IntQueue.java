@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Interfaz que representa una cola de valores int y sus funciones básicas.
+ * Tiene la misma semántica que {@link Queue}, pero sin envolver cada valor en
+ * un {@link Integer}.
+ *
+ * @author Quini Roiz
+ */
+public interface IntQueue {
+
+    /**
+     * Método que devuelve el tamaño de la cola
+     *
+     * @return entero con el número de elementos en la cola
+     */
+    int size();
+
+    /**
+     * Método que comprobará si la cola está vacía
+     *
+     * @return booleano con el resultado de la comprobación
+     */
+    boolean isEmpty();
+
+    /**
+     * Método que devuelve el primer elemento sin borrarlo de la cola
+     *
+     * @return primer elemento de la cola
+     * @throws EmptyQueueException en caso de cola vacía
+     */
+    int front() throws EmptyQueueException;
+
+    /**
+     * Método que añadirá un elemento a la cola
+     *
+     * @param o Elemento a añadir a la cola
+     * @throws QueueFullException en caso de cola llena
+     */
+    void enqueue(int o) throws QueueFullException;
+
+    /**
+     * Método que desencolará al primer elemento de la cola
+     *
+     * @return primer elemento de la cola
+     * @throws EmptyQueueException en caso de cola vacía
+     */
+    int dequeue() throws EmptyQueueException;
+
+    /**
+     * Método que buscará un elemento en la cola
+     *
+     * @param e elemento a buscar en la cola
+     * @return booleano con el resultado de la comprobación
+     */
+    boolean search(int e);
+
+    /**
+     * Método que añade en orden todos los elementos de un array. Si la cola
+     * se llena, los elementos que cupieron quedan encolados.
+     *
+     * @param items elementos a añadir a la cola
+     * @throws QueueFullException en caso de no caber todos los elementos
+     */
+    default void enqueueAll(int[] items) throws QueueFullException {
+        for (int item : items) {
+            enqueue(item);
+        }
+    }
+
+    /**
+     * Método que desencola varios elementos de una vez, entregándolos en
+     * orden a un consumidor
+     *
+     * @param consumer receptor de los elementos desencolados
+     * @param max número máximo de elementos a desencolar
+     * @return número de elementos desencolados
+     */
+    default int drainTo(IntConsumer consumer, int max) {
+        int count = 0;
+        try {
+            while (count < max && !isEmpty()) {
+                consumer.accept(dequeue());
+                count++;
+            }
+        } catch (EmptyQueueException ex) {
+            // otro hilo la ha vaciado antes que nosotros
+        }
+        return count;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cola acotada sin bloqueos para varios productores y un único consumidor,
+ * sobre un array circular.
+ * <p>
+ * Los productores reservan su posición con un CAS sobre la cola y publican el
+ * elemento con una escritura ordenada en el hueco; el consumidor no necesita
+ * CAS, ya que es el único que mueve la cabeza. Un hueco vacío por debajo de
+ * la cola indica que su productor aún no ha terminado de escribirlo, y el
+ * consumidor lo espera. Los productores guardan un límite compartido hasta el
+ * que pueden escribir sin volver a leer la cabeza.
+ * <p>
+ * poll, peek, front y dequeue solo pueden llamarse desde un hilo consumidor.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class MpscArrayQueue<E> extends ProducerLimit implements ConcurrentQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final int mask;
+
+    public MpscArrayQueue(int capacity) {
+        int n = ConcurrentArrayQueue.powerOfTwo(capacity);
+        elements = new AtomicReferenceArray<>(n);
+        mask = n - 1;
+        producerLimit = n;
+    }
+
+    @Override
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public int size() {
+        return currentSize(capacity());
+    }
+
+    @Override
+    public boolean offer(E o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        long limit = producerLimit;
+        long t;
+        do {
+            t = tail;
+            if (t >= limit) {
+                limit = head + mask + 1;
+                if (t >= limit) {
+                    return false;
+                }
+                lazySetProducerLimit(limit);
+            }
+        } while (!casTail(t, t + 1));
+        elements.lazySet((int) t & mask, o);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long h = head;
+        int i = (int) h & mask;
+        E element = elements.get(i);
+        if (element == null) {
+            if (h == tail) {
+                return null;
+            }
+            // el productor ha reservado el hueco pero aún no lo ha escrito
+            do {
+                element = elements.get(i);
+            } while (element == null);
+        }
+        elements.lazySet(i, null);
+        lazySetHead(h + 1);
+        return element;
+    }
+
+    @Override
+    public E peek() {
+        long h = head;
+        int i = (int) h & mask;
+        E element = elements.get(i);
+        if (element == null && h != tail) {
+            do {
+                element = elements.get(i);
+            } while (element == null);
+        }
+        return element;
+    }
+
+    /**
+     * Busca un elemento entre los que hay en la cola. Si otros hilos la
+     * modifican a la vez, el resultado refleja algún estado intermedio.
+     *
+     * @param e elemento a buscar en la cola
+     * @return booleano con el resultado de la comprobación
+     */
+    @Override
+    public boolean search(E e) {
+        long t = tail;
+        for (long p = head; p < t; p++) {
+            if (e.equals(elements.get((int) p & mask))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Índices de cabeza y cola de una cola concurrente, cada uno en su propia
+ * línea de caché. Si ambos compartieran línea, cada escritura de un
+ * productor invalidaría la línea que lee el consumidor y viceversa (false
+ * sharing).
+ * <p>
+ * Java no garantiza el orden de los campos de una clase, pero sí coloca los
+ * de una superclase antes que los de sus subclases, por lo que el relleno se
+ * consigue con una cadena de herencia. Junto a cada índice va una copia del
+ * índice contrario que solo usa el mismo lado, para no leer el índice
+ * compartido en cada operación.
+ *
+ * @author Quini Roiz
+ */
+abstract class PaddedIndexes extends ProducerIndex {
+
+    long p20, p21, p22, p23, p24, p25, p26;
+
+    /**
+     * Método que devuelve el número de elementos entre la cabeza y la cola,
+     * leyendo la cabeza antes y después para obtener un valor coherente
+     *
+     * @param capacity capacidad de la cola
+     * @return número de elementos, entre 0 y la capacidad
+     */
+    final int currentSize(int capacity) {
+        while (true) {
+            long h = head;
+            long t = tail;
+            if (head == h) {
+                return (int) Math.max(0, Math.min(t - h, capacity));
+            }
+        }
+    }
+}
+
+abstract class HeadPad {
+
+    long p00, p01, p02, p03, p04, p05, p06;
+}
+
+abstract class ConsumerIndex extends HeadPad {
+
+    private static final AtomicLongFieldUpdater<ConsumerIndex> HEAD
+            = AtomicLongFieldUpdater.newUpdater(ConsumerIndex.class, "head");
+
+    // siguiente posición a leer, y última cola vista por el consumidor
+    volatile long head;
+    long cachedTail;
+
+    final boolean casHead(long expect, long update) {
+        return HEAD.compareAndSet(this, expect, update);
+    }
+
+    final void lazySetHead(long value) {
+        HEAD.lazySet(this, value);
+    }
+}
+
+abstract class MiddlePad extends ConsumerIndex {
+
+    long p10, p11, p12, p13, p14, p15, p16;
+}
+
+abstract class ProducerIndex extends MiddlePad {
+
+    private static final AtomicLongFieldUpdater<ProducerIndex> TAIL
+            = AtomicLongFieldUpdater.newUpdater(ProducerIndex.class, "tail");
+
+    // siguiente posición a escribir, y última cabeza vista por el productor
+    volatile long tail;
+    long cachedHead;
+
+    final boolean casTail(long expect, long update) {
+        return TAIL.compareAndSet(this, expect, update);
+    }
+
+    final void lazySetTail(long value) {
+        TAIL.lazySet(this, value);
+    }
+}
+
+abstract class ProducerLimit extends PaddedIndexes {
+
+    private static final AtomicLongFieldUpdater<ProducerLimit> LIMIT
+            = AtomicLongFieldUpdater.newUpdater(ProducerLimit.class, "producerLimit");
+
+    // primera posición que los productores no pueden escribir sin releer la
+    // cabeza; un valor atrasado solo obliga a releerla antes de tiempo
+    volatile long producerLimit;
+
+    final void lazySetProducerLimit(long value) {
+        LIMIT.lazySet(this, value);
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+
+/**
+ * Cola de prioridad sobre un montículo de emparejamiento: un árbol en el que
+ * cada nodo es menor que sus hijos, guardados como lista enlazada. Insertar y
+ * unir dos montículos enlaza dos raíces en O(1); sacar el mínimo empareja
+ * sus hijos de dos en dos de izquierda a derecha y une los resultados de
+ * derecha a izquierda, en O(log n) amortizado.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class PairingHeap<E> implements Queue<E> {
+
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+    private int size;
+
+    /**
+     * Constructor de un montículo que ordena por el orden natural de los
+     * elementos
+     */
+    public PairingHeap() {
+        this(null);
+    }
+
+    /**
+     * Constructor de un montículo
+     *
+     * @param comparator orden de los elementos, null para su orden natural
+     */
+    public PairingHeap(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public E front() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("front: Queue is empty!!");
+        }
+        return root.element;
+    }
+
+    @Override
+    public void enqueue(E o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        Node<E> n = new Node<>(o);
+        root = root == null ? n : link(root, n);
+        size++;
+    }
+
+    @Override
+    public E dequeue() throws EmptyQueueException {
+        if (isEmpty()) {
+            throw new EmptyQueueException("dequeue: Queue is empty!!");
+        }
+        E min = root.element;
+        root = mergePairs(root.child);
+        size--;
+        return min;
+    }
+
+    /**
+     * Método que pasa a este montículo todos los elementos de otro en O(1),
+     * dejando el otro vacío. Ambos deben ordenar los elementos igual.
+     *
+     * @param other montículo a unir con este
+     */
+    public void meld(PairingHeap<E> other) {
+        if (other == this || other.root == null) {
+            return;
+        }
+        root = root == null ? other.root : link(root, other.root);
+        size += other.size;
+        other.root = null;
+        other.size = 0;
+    }
+
+    @Override
+    public boolean search(E e) {
+        if (root == null) {
+            return false;
+        }
+        // recorrido en profundidad sin recursión, el árbol puede ser muy alto
+        ArrayDeque<Node<E>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            for (Node<E> n = pending.pop(); n != null; n = n.sibling) {
+                if (e.equals(n.element)) {
+                    return true;
+                }
+                if (n.child != null) {
+                    pending.push(n.child);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método que enlaza dos raíces, haciendo de la mayor el primer hijo de la
+     * menor
+     *
+     * @param a raíz sin hermanos
+     * @param b raíz sin hermanos
+     * @return raíz del árbol unido
+     */
+    private Node<E> link(Node<E> a, Node<E> b) {
+        if (compare(b.element, a.element) < 0) {
+            Node<E> t = a;
+            a = b;
+            b = t;
+        }
+        b.sibling = a.child;
+        a.child = b;
+        return a;
+    }
+
+    /**
+     * Método que une una lista de hermanos en un solo árbol con las dos
+     * pasadas del montículo de emparejamiento
+     *
+     * @param first primer hermano de la lista, puede ser null
+     * @return raíz del árbol unido o null si la lista estaba vacía
+     */
+    private Node<E> mergePairs(Node<E> first) {
+        // primera pasada: enlazamos por parejas y apilamos cada resultado
+        // usando el propio enlace al hermano, lo que invierte el orden
+        Node<E> paired = null;
+        while (first != null) {
+            Node<E> a = first;
+            Node<E> b = a.sibling;
+            if (b == null) {
+                a.sibling = paired;
+                paired = a;
+                break;
+            }
+            first = b.sibling;
+            a.sibling = null;
+            b.sibling = null;
+            Node<E> m = link(a, b);
+            m.sibling = paired;
+            paired = m;
+        }
+        // segunda pasada: unimos de derecha a izquierda
+        Node<E> result = null;
+        while (paired != null) {
+            Node<E> next = paired.sibling;
+            paired.sibling = null;
+            result = result == null ? paired : link(paired, result);
+            paired = next;
+        }
+        return result;
+    }
+
+    private int compare(E a, E b) {
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super E>) a).compareTo(b);
+    }
+
+    /**
+     * Nodo del montículo, con su primer hijo y su siguiente hermano
+     */
+    private static final class Node<E> {
+
+        final E element;
+        Node<E> child;
+        Node<E> sibling;
+
+        Node(E element) {
+            this.element = element;
+        }
+    }
+}
@@ -7,6 +7,9 @@
  */
 package structuredata.queue;
 
+import java.util.Collection;
+import java.util.function.Consumer;
+
 /**
  * Interfaz que representa una cola y sus funciones básicas.
  *
@@ -61,4 +64,52 @@ public interface Queue<E> {
      * @return booleano con el resultado de la comprobación
      */
     boolean search(E e);
+
+    /**
+     * Método que añade en orden todos los elementos de un array. Si la cola
+     * se llena, los elementos que cupieron quedan encolados.
+     *
+     * @param items elementos a añadir a la cola
+     * @throws QueueFullException en caso de no caber todos los elementos
+     */
+    default void enqueueAll(E[] items) throws QueueFullException {
+        for (E item : items) {
+            enqueue(item);
+        }
+    }
+
+    /**
+     * Método que añade todos los elementos de una colección, en el orden de
+     * su iterador. Si la cola se llena, los elementos que cupieron quedan
+     * encolados.
+     *
+     * @param items elementos a añadir a la cola
+     * @throws QueueFullException en caso de no caber todos los elementos
+     */
+    default void enqueueAll(Collection<? extends E> items) throws QueueFullException {
+        for (E item : items) {
+            enqueue(item);
+        }
+    }
+
+    /**
+     * Método que desencola varios elementos de una vez, entregándolos en
+     * orden a un consumidor
+     *
+     * @param consumer receptor de los elementos desencolados
+     * @param max número máximo de elementos a desencolar
+     * @return número de elementos desencolados
+     */
+    default int drainTo(Consumer<? super E> consumer, int max) {
+        int count = 0;
+        try {
+            while (count < max && !isEmpty()) {
+                consumer.accept(dequeue());
+                count++;
+            }
+        } catch (EmptyQueueException ex) {
+            // otro hilo la ha vaciado antes que nosotros
+        }
+        return count;
+    }
 }
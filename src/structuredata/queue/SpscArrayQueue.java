@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+/**
+ * Cola acotada sin bloqueos para un único productor y un único consumidor,
+ * sobre un array circular.
+ * <p>
+ * Al tener cada índice un solo escritor no hace falta ningún CAS: el
+ * productor escribe el elemento y publica la nueva cola con una escritura
+ * ordenada (lazySet), que garantiza que el consumidor verá el elemento antes
+ * que la cola, y lo mismo hace el consumidor con la cabeza. Además cada lado
+ * guarda la última posición vista del otro y solo vuelve a leer el índice
+ * compartido cuando la copia indica que la cola está llena o vacía.
+ * <p>
+ * offer y enqueue solo pueden llamarse desde un hilo productor, y poll, peek,
+ * front y dequeue desde un hilo consumidor, que pueden ser distintos.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class SpscArrayQueue<E> extends PaddedIndexes implements ConcurrentQueue<E> {
+
+    private final E[] elements;
+    private final int mask;
+
+    public SpscArrayQueue(int capacity) {
+        int n = ConcurrentArrayQueue.powerOfTwo(capacity);
+        E[] a = (E[]) new Object[n];
+        elements = a;
+        mask = n - 1;
+    }
+
+    @Override
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public int size() {
+        return currentSize(capacity());
+    }
+
+    @Override
+    public boolean offer(E o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        long t = tail;
+        if (t - cachedHead > mask) {
+            cachedHead = head;
+            if (t - cachedHead > mask) {
+                return false;
+            }
+        }
+        elements[(int) t & mask] = o;
+        lazySetTail(t + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long h = head;
+        if (h >= cachedTail) {
+            cachedTail = tail;
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        int i = (int) h & mask;
+        E element = elements[i];
+        elements[i] = null;
+        lazySetHead(h + 1);
+        return element;
+    }
+
+    @Override
+    public E peek() {
+        long h = head;
+        if (h >= cachedTail) {
+            cachedTail = tail;
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        return elements[(int) h & mask];
+    }
+
+    /**
+     * Busca un elemento entre los que hay en la cola. Si otros hilos la
+     * modifican a la vez, el resultado refleja algún estado intermedio.
+     *
+     * @param e elemento a buscar en la cola
+     * @return booleano con el resultado de la comprobación
+     */
+    @Override
+    public boolean search(E e) {
+        long t = tail;
+        for (long p = head; p < t; p++) {
+            if (e.equals(elements[(int) p & mask])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
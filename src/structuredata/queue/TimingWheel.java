@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cola de elementos con plazo sobre una rueda de tiempo jerárquica. El
+ * tiempo se divide en ticks de duración fija y cada rueda tiene 64 huecos: la
+ * primera guarda los plazos de los próximos 64 ticks, la segunda los de los
+ * próximos 64 * 64 agrupados de 64 en 64, y así hasta cubrir cualquier plazo.
+ * Cada elemento va a la rueda del grupo de bits más alto en que su plazo
+ * difiere del tick actual, y al llegar el tiempo su hueco se reparte entre
+ * las ruedas inferiores.
+ * <p>
+ * Programar y cancelar son O(1), ya que cada hueco es una lista doblemente
+ * enlazada. {@link #expire(Consumer)} avanza hasta el tick actual del reloj y
+ * entrega de golpe todos los elementos de cada tick vencido, saltando los
+ * huecos vacíos gracias a una máscara de ocupación por rueda. Un elemento
+ * nunca vence antes de su plazo, y como mucho un tick después más lo que
+ * tarde en llamarse a expire.
+ * <p>
+ * No es segura para varios hilos.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class TimingWheel<E> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    // 11 ruedas de 64 huecos cubren los 63 bits de un tick positivo
+    private static final int LEVELS = 11;
+
+    private final Clock clock;
+    private final long tickNanos;
+    private final long origin;
+    private final Timeout<E>[][] buckets;
+    // bit i de la rueda k activo si el hueco i de esa rueda tiene elementos
+    private final long[] occupied;
+    // elementos vencidos pendientes de entregar, en orden de vencimiento
+    private Timeout<E> dueHead;
+    private Timeout<E> dueTail;
+    private int dueSize;
+    // último tick procesado
+    private long now;
+    private int size;
+
+    /**
+     * Constructor de una rueda sobre el reloj del sistema
+     *
+     * @param tick duración de cada tick
+     * @param unit unidad de la duración
+     */
+    public TimingWheel(long tick, TimeUnit unit) {
+        this(tick, unit, Clock.system());
+    }
+
+    /**
+     * Constructor de una rueda
+     *
+     * @param tick duración de cada tick
+     * @param unit unidad de la duración
+     * @param clock reloj del que se lee el tiempo
+     */
+    public TimingWheel(long tick, TimeUnit unit, Clock clock) {
+        tickNanos = unit.toNanos(tick);
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Duración de tick no válida: " + tick);
+        }
+        this.clock = clock;
+        origin = clock.nanoTime();
+        @SuppressWarnings("unchecked")
+        Timeout<E>[][] b = (Timeout<E>[][]) new Timeout<?>[LEVELS][WHEEL_SIZE];
+        buckets = b;
+        occupied = new long[LEVELS];
+    }
+
+    /**
+     * Método que devuelve el número de elementos pendientes
+     *
+     * @return elementos programados que ni han vencido ni se han cancelado
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Método que comprueba si no queda ningún elemento pendiente
+     *
+     * @return true si no hay elementos programados sin vencer ni cancelar
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Método que programa un elemento para que venza tras un retraso
+     *
+     * @param element elemento a programar
+     * @param delay retraso desde ahora, si es negativo vence en la siguiente
+     * llamada a expire
+     * @param unit unidad del retraso
+     * @return referencia con la que cancelar el elemento
+     */
+    public Timeout<E> schedule(E element, long delay, TimeUnit unit) {
+        long at = clock.nanoTime() - origin + Math.max(0, unit.toNanos(delay));
+        if (at < 0) {
+            // desbordamiento: un plazo tan lejano equivale a nunca
+            at = Long.MAX_VALUE;
+        }
+        Timeout<E> t = new Timeout<>(this, element, at / tickNanos + (at % tickNanos == 0 ? 0 : 1));
+        place(t);
+        size++;
+        return t;
+    }
+
+    /**
+     * Método que cancela un elemento programado
+     *
+     * @param t referencia devuelta al programarlo
+     * @return true si se ha cancelado, false si ya había vencido o estaba
+     * cancelado
+     */
+    public boolean cancel(Timeout<E> t) {
+        if (t.wheel != this) {
+            throw new IllegalArgumentException("El elemento no es de esta rueda");
+        }
+        if (t.state != Timeout.PENDING) {
+            return false;
+        }
+        unlink(t);
+        t.state = Timeout.CANCELLED;
+        size--;
+        return true;
+    }
+
+    /**
+     * Método que avanza la rueda hasta el tick actual del reloj y entrega en
+     * orden de plazo los elementos vencidos. Los que se programen desde el
+     * consumidor ya vencidos esperan al siguiente tick procesado o a la
+     * siguiente llamada. Si el consumidor lanza una excepción, los elementos
+     * aún no entregados se conservan.
+     *
+     * @param consumer receptor de los elementos vencidos
+     * @return número de elementos entregados
+     */
+    public int expire(Consumer<? super E> consumer) {
+        long target = (clock.nanoTime() - origin) / tickNanos;
+        int count = deliver(consumer);
+        long next;
+        while ((next = nextTick()) <= target) {
+            now = next;
+            // primero bajamos los huecos de las ruedas superiores que vencen
+            // en este tick, de la más alta a la más baja
+            for (int k = LEVELS - 1; k > 0; k--) {
+                int shift = k * WHEEL_BITS;
+                if ((now & ((1L << shift) - 1)) == 0) {
+                    Timeout<E> t = detach(k, (int) (now >>> shift) & MASK);
+                    while (t != null) {
+                        Timeout<E> following = t.next;
+                        place(t);
+                        t = following;
+                    }
+                }
+            }
+            Timeout<E> t = detach(0, (int) now & MASK);
+            while (t != null) {
+                Timeout<E> following = t.next;
+                appendDue(t);
+                t = following;
+            }
+            count += deliver(consumer);
+        }
+        // no queda nada hasta el tick actual, podemos saltar hasta él
+        now = Math.max(now, target);
+        return count;
+    }
+
+    /**
+     * Método que entrega los elementos que había en la lista de vencidos al
+     * empezar, sacándolos uno a uno para que el consumidor pueda cancelar los
+     * siguientes o programar otros sin romper la lista
+     *
+     * @param consumer receptor de los elementos
+     * @return número de elementos entregados
+     */
+    private int deliver(Consumer<? super E> consumer) {
+        int count = 0;
+        for (int remaining = dueSize; remaining > 0 && dueHead != null; remaining--) {
+            Timeout<E> t = dueHead;
+            unlink(t);
+            t.state = Timeout.EXPIRED;
+            size--;
+            count++;
+            consumer.accept(t.element);
+        }
+        return count;
+    }
+
+    /**
+     * Método que calcula el siguiente tick en que vence algún hueco ocupado.
+     * Los huecos ocupados de cada rueda siempre están por delante de la
+     * posición actual, por lo que basta con el primero de la máscara.
+     *
+     * @return siguiente tick con trabajo o Long.MAX_VALUE si no hay ninguno
+     */
+    private long nextTick() {
+        long next = Long.MAX_VALUE;
+        for (int k = 0; k < LEVELS; k++) {
+            if (occupied[k] != 0) {
+                int shift = k * WHEEL_BITS;
+                int window = shift + WHEEL_BITS;
+                long base = window >= Long.SIZE - 1 ? 0 : (now >>> window) << window;
+                next = Math.min(next, base | (long) Long.numberOfTrailingZeros(occupied[k]) << shift);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Método que coloca un elemento en la rueda que le toca según su plazo y
+     * el tick actual, o en la lista de vencidos si su plazo ya ha llegado
+     *
+     * @param t elemento a colocar
+     */
+    private void place(Timeout<E> t) {
+        long d = t.deadline;
+        if (d <= now) {
+            appendDue(t);
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(d ^ now)) / WHEEL_BITS;
+        int slot = (int) (d >>> (level * WHEEL_BITS)) & MASK;
+        Timeout<E> head = buckets[level][slot];
+        t.level = level;
+        t.slot = slot;
+        t.prev = null;
+        t.next = head;
+        if (head != null) {
+            head.prev = t;
+        }
+        buckets[level][slot] = t;
+        occupied[level] |= 1L << slot;
+    }
+
+    private void appendDue(Timeout<E> t) {
+        t.level = -1;
+        t.next = null;
+        t.prev = dueTail;
+        if (dueTail != null) {
+            dueTail.next = t;
+        } else {
+            dueHead = t;
+        }
+        dueTail = t;
+        dueSize++;
+    }
+
+    private void unlink(Timeout<E> t) {
+        if (t.level < 0) {
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                dueHead = t.next;
+            }
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            } else {
+                dueTail = t.prev;
+            }
+            dueSize--;
+        } else {
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                buckets[t.level][t.slot] = t.next;
+                if (t.next == null) {
+                    occupied[t.level] &= ~(1L << t.slot);
+                }
+            }
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            }
+        }
+        t.prev = t.next = null;
+    }
+
+    /**
+     * Método que vacía un hueco y devuelve su lista de elementos
+     *
+     * @param level rueda del hueco
+     * @param slot posición del hueco en la rueda
+     * @return primer elemento de la lista o null si estaba vacío
+     */
+    private Timeout<E> detach(int level, int slot) {
+        Timeout<E> head = buckets[level][slot];
+        buckets[level][slot] = null;
+        occupied[level] &= ~(1L << slot);
+        return head;
+    }
+
+    /**
+     * Elemento programado en la rueda, que sirve para cancelarlo
+     *
+     * @param <E> tipo del elemento
+     */
+    public static final class Timeout<E> {
+
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final TimingWheel<E> wheel;
+        private final E element;
+        private final long deadline;
+        private int state;
+        // posición en la rueda, level -1 en la lista de vencidos
+        private int level;
+        private int slot;
+        private Timeout<E> prev;
+        private Timeout<E> next;
+
+        private Timeout(TimingWheel<E> wheel, E element, long deadline) {
+            this.wheel = wheel;
+            this.element = element;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Método que devuelve el elemento programado
+         *
+         * @return elemento indicado al programarlo
+         */
+        public E element() {
+            return element;
+        }
+
+        /**
+         * Método que comprueba si el elemento ya ha vencido y se ha entregado
+         *
+         * @return true si ha vencido
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * Método que comprueba si el elemento se ha cancelado antes de vencer
+         *
+         * @return true si se ha cancelado
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Forma de esperar a que una cola tenga hueco o elementos. Cada estrategia
+ * cambia latencia por consumo de CPU:
+ * <ul>
+ * <li>{@link #busySpin()}: reintenta sin descanso, la menor latencia a costa
+ * de ocupar un núcleo entero</li>
+ * <li>{@link #yielding()}: cede el procesador entre intentos</li>
+ * <li>{@link #parking()}: duerme entre intentos, cada vez más tiempo hasta un
+ * milisegundo</li>
+ * <li>{@link #blocking()}: duerme en una condición hasta que otro hilo avisa,
+ * sin consumir CPU pero con el coste de despertar al hilo</li>
+ * </ul>
+ *
+ * @author Quini Roiz
+ */
+public interface WaitStrategy {
+
+    /**
+     * Método que repite un intento hasta que tenga éxito o venza el plazo
+     *
+     * @param attempt intento a repetir, devuelve true si ha tenido éxito
+     * @param nanos plazo máximo en nanosegundos, Long.MAX_VALUE para esperar
+     * sin límite
+     * @return true si el intento ha tenido éxito, false si venció el plazo
+     * @throws InterruptedException si se interrumpe el hilo mientras espera
+     */
+    boolean await(BooleanSupplier attempt, long nanos) throws InterruptedException;
+
+    /**
+     * Método que avisa a los hilos en espera de que la cola ha cambiado. Solo
+     * hace falta en las estrategias que duermen hasta recibir aviso.
+     */
+    default void signalAll() {
+    }
+
+    /**
+     * Método que devuelve la estrategia de espera activa sin descanso
+     *
+     * @return estrategia compartida
+     */
+    static WaitStrategy busySpin() {
+        return Spinning.BUSY;
+    }
+
+    /**
+     * Método que devuelve la estrategia que cede el procesador entre intentos
+     *
+     * @return estrategia compartida
+     */
+    static WaitStrategy yielding() {
+        return Spinning.YIELD;
+    }
+
+    /**
+     * Método que devuelve la estrategia que duerme entre intentos
+     *
+     * @return estrategia compartida
+     */
+    static WaitStrategy parking() {
+        return Spinning.PARK;
+    }
+
+    /**
+     * Método que crea una estrategia que duerme hasta recibir aviso. Guarda su
+     * propia condición, por lo que cada cola necesita una instancia.
+     *
+     * @return estrategia nueva
+     */
+    static WaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    /**
+     * Estrategias que reintentan sin necesitar aviso
+     */
+    enum Spinning implements WaitStrategy {
+
+        BUSY, YIELD, PARK;
+
+        // intentos seguidos antes de empezar a dormir, y sueño máximo
+        private static final int SPINS = 100;
+        private static final long MAX_PARK = TimeUnit.MILLISECONDS.toNanos(1);
+
+        @Override
+        public boolean await(BooleanSupplier attempt, long nanos) throws InterruptedException {
+            long deadline = nanos == Long.MAX_VALUE ? 0 : System.nanoTime() + nanos;
+            long park = 1000;
+            for (int tries = 0; !attempt.getAsBoolean(); tries++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                long remaining = nanos == Long.MAX_VALUE ? MAX_PARK : deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (this == YIELD) {
+                    Thread.yield();
+                } else if (this == PARK && tries >= SPINS) {
+                    LockSupport.parkNanos(Math.min(park, remaining));
+                    park = Math.min(park * 2, MAX_PARK);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Estrategia que espera en una condición. Los hilos que van a dormir lo
+     * anuncian en un indicador, y solo entonces el aviso toma el cerrojo.
+     */
+    final class Blocking implements WaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+        @Override
+        public boolean await(BooleanSupplier attempt, long nanos) throws InterruptedException {
+            if (attempt.getAsBoolean()) {
+                return true;
+            }
+            long remaining = nanos;
+            lock.lockInterruptibly();
+            try {
+                while (true) {
+                    // el anuncio va antes del intento: un aviso posterior al
+                    // intento fallido siempre encuentra el indicador activo,
+                    // y uno anterior ya ha publicado el cambio que lee el
+                    // intento, pues ambos lados usan getAndSet sobre él
+                    signalNeeded.getAndSet(true);
+                    if (attempt.getAsBoolean()) {
+                        return true;
+                    }
+                    if (nanos == Long.MAX_VALUE) {
+                        changed.await();
+                    } else if (remaining <= 0) {
+                        return false;
+                    } else {
+                        remaining = changed.awaitNanos(remaining);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signalAll() {
+            if (signalNeeded.getAndSet(false)) {
+                lock.lock();
+                try {
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
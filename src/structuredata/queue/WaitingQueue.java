@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cola bloqueante construida sobre cualquier cola concurrente. Las esperas
+ * repiten offer o poll sobre la cola envuelta según la estrategia indicada,
+ * de modo que el camino sin espera cuesta lo mismo que la cola original más
+ * el aviso de la estrategia, que en las que no duermen no hace nada.
+ * <p>
+ * Se respetan las restricciones de hilos de la cola envuelta: sobre una
+ * {@link SpscArrayQueue} solo puede haber un hilo que llame a put y otro que
+ * llame a take.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class WaitingQueue<E> implements BlockingQueue<E> {
+
+    private final ConcurrentQueue<E> queue;
+    private final WaitStrategy strategy;
+
+    public WaitingQueue(ConcurrentQueue<E> queue, WaitStrategy strategy) {
+        if (queue == null || strategy == null) {
+            throw new NullPointerException();
+        }
+        this.queue = queue;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Constructor de una cola bloqueante sobre una cola de varios productores
+     * y consumidores, que duerme hasta recibir aviso
+     *
+     * @param capacity capacidad mínima de la cola
+     */
+    public WaitingQueue(int capacity) {
+        this(new ConcurrentArrayQueue<>(capacity), WaitStrategy.blocking());
+    }
+
+    @Override
+    public boolean offer(E o) {
+        if (queue.offer(o)) {
+            strategy.signalAll();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public E poll() {
+        E element = queue.poll();
+        if (element != null) {
+            strategy.signalAll();
+        }
+        return element;
+    }
+
+    @Override
+    public void put(E o) throws InterruptedException {
+        offer(o, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean offer(E o, long timeout, TimeUnit unit) throws InterruptedException {
+        if (offer(o)) {
+            return true;
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (strategy.await(() -> queue.offer(o), unit.toNanos(timeout))) {
+            strategy.signalAll();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        Object[] taken = new Object[1];
+        if (strategy.await(() -> (taken[0] = queue.poll()) != null, unit.toNanos(timeout))) {
+            strategy.signalAll();
+            return (E) taken[0];
+        }
+        return null;
+    }
+
+    @Override
+    public E peek() {
+        return queue.peek();
+    }
+
+    @Override
+    public int capacity() {
+        return queue.capacity();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public boolean search(E e) {
+        return queue.search(e);
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int max) {
+        // el aviso va aunque el consumidor falle a mitad, ya ha sacado algunos
+        try {
+            return queue.drainTo(consumer, max);
+        } finally {
+            strategy.signalAll();
+        }
+    }
+}
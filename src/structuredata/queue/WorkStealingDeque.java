@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2018, Joaquín Roiz Pagador y colaboradores.
+ * <p>
+ * Libre distribución haciendo referencia al autor.
+ *
+ *
+ */
+package structuredata.queue;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Doble cola de Chase y Lev para repartir tareas entre hilos por robo. Un
+ * hilo propietario añade y saca tareas por abajo, en orden LIFO, y el resto
+ * de hilos roban por arriba las más antiguas, que suelen ser las mayores.
+ * <p>
+ * El propietario es el único que mueve el fondo, así que push y pop no
+ * necesitan CAS salvo al disputar la última tarea con un ladrón. Los ladrones
+ * se reparten la cima con un CAS. Entre la escritura del fondo y la lectura
+ * de la cima en pop hace falta una barrera completa, que se obtiene de que
+ * ambos campos sean volatile. El array es circular y dobla su tamaño al
+ * llenarse; el anterior no se vuelve a escribir, por lo que un ladrón que
+ * aún lo lea sigue viendo las tareas que le quedaban.
+ * <p>
+ * push y pop solo pueden llamarse desde el hilo propietario, y steal desde
+ * cualquiera. El hueco de una tarea robada no se limpia hasta que el
+ * propietario vuelve a escribir en él.
+ *
+ * @author Quini Roiz
+ * @param <E> Los tipos utilizados serán genéricos en esta clase, adaptándose a
+ * lo recibido en la declaración
+ */
+public class WorkStealingDeque<E> extends PaddedIndexes {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // la cima es la cabeza de los índices y el fondo su cola
+    private volatile AtomicReferenceArray<E> array;
+
+    public WorkStealingDeque() {
+        this(64);
+    }
+
+    /**
+     * Constructor de una doble cola
+     *
+     * @param capacity capacidad inicial, se redondea a una potencia de dos
+     */
+    public WorkStealingDeque(int capacity) {
+        array = new AtomicReferenceArray<>(ConcurrentArrayQueue.powerOfTwo(capacity));
+    }
+
+    /**
+     * Método que devuelve un número aproximado de tareas si otros hilos
+     * modifican la doble cola a la vez
+     *
+     * @return número de tareas
+     */
+    public int size() {
+        return currentSize(MAX_CAPACITY);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Método que añade una tarea por abajo. Solo desde el hilo propietario.
+     *
+     * @param e tarea a añadir, no nula
+     */
+    public void push(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long b = tail;
+        AtomicReferenceArray<E> a = array;
+        if (b - cachedHead >= a.length()) {
+            cachedHead = head;
+            if (b - cachedHead >= a.length()) {
+                a = grow(a, cachedHead, b);
+            }
+        }
+        a.lazySet((int) b & (a.length() - 1), e);
+        // la escritura ordenada del fondo publica la tarea a los ladrones
+        lazySetTail(b + 1);
+    }
+
+    /**
+     * Método que saca la última tarea añadida. Solo desde el hilo
+     * propietario.
+     *
+     * @return tarea o null si está vacía
+     */
+    public E pop() {
+        long b = tail - 1;
+        AtomicReferenceArray<E> a = array;
+        // escritura y lectura volatile: ningún ladrón puede llevarse la tarea
+        // b sin que lo veamos en la cima
+        tail = b;
+        long t = head;
+        if (t > b) {
+            tail = b + 1;
+            return null;
+        }
+        int i = (int) b & (a.length() - 1);
+        E e = a.get(i);
+        if (t == b) {
+            // última tarea: la disputamos con los ladrones moviendo la cima
+            if (!casHead(t, t + 1)) {
+                e = null;
+            }
+            lazySetTail(b + 1);
+        }
+        if (e != null) {
+            a.lazySet(i, null);
+        }
+        return e;
+    }
+
+    /**
+     * Método que roba la tarea más antigua. Puede llamarse desde cualquier
+     * hilo.
+     *
+     * @return tarea o null si está vacía
+     */
+    public E steal() {
+        while (true) {
+            long t = head;
+            long b = tail;
+            if (t >= b) {
+                return null;
+            }
+            AtomicReferenceArray<E> a = array;
+            E e = a.get((int) t & (a.length() - 1));
+            if (casHead(t, t + 1)) {
+                return e;
+            }
+            // otro ladrón o el propietario se ha llevado la tarea t
+        }
+    }
+
+    /**
+     * Método que copia las tareas a un array del doble de tamaño y lo publica
+     *
+     * @param a array actual
+     * @param t cima leída por el propietario
+     * @param b fondo actual
+     * @return nuevo array
+     */
+    private AtomicReferenceArray<E> grow(AtomicReferenceArray<E> a, long t, long b) {
+        int n = a.length();
+        if (n >= MAX_CAPACITY) {
+            throw new IllegalStateException("Deque is full");
+        }
+        AtomicReferenceArray<E> grown = new AtomicReferenceArray<>(n * 2);
+        for (long i = t; i < b; i++) {
+            grown.lazySet((int) i & (2 * n - 1), a.get((int) i & (n - 1)));
+        }
+        array = grown;
+        return grown;
+    }
+}